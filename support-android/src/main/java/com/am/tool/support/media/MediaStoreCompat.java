@@ -1,5 +1,6 @@
 package com.am.tool.support.media;
 
+import android.content.ContentProviderOperation;
 import android.content.ContentResolver;
 import android.content.ContentValues;
 import android.database.Cursor;
@@ -8,13 +9,29 @@ import android.os.Build;
 import android.os.ParcelFileDescriptor;
 import android.provider.MediaStore;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 
+import com.am.tool.support.other.ArchTaskExecutor;
+import com.am.tool.support.other.ParallelWorkQueue;
 import com.am.tool.support.utils.FileUtils;
 import com.am.tool.support.utils.StreamUtils;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * MediaStore兼容器
@@ -35,12 +52,7 @@ public class MediaStoreCompat {
         final ContentValues values = getContentValues(name, mimeType);
         values.put(MediaStore.Images.Media.IS_PENDING, 1);
         final Uri uri = resolver.insert(collection, values);
-        try (final FileInputStream input = new FileInputStream(file);
-             final ParcelFileDescriptor.AutoCloseOutputStream output =
-                     new ParcelFileDescriptor.AutoCloseOutputStream(
-                             resolver.openFileDescriptor(uri, "w"))) {
-            StreamUtils.copy(input, output);
-        }
+        write(resolver, file, uri);
         values.clear();
         values.put(MediaStore.Images.Media.SIZE, file.length());
         values.put(MediaStore.Audio.Media.IS_PENDING, 0);
@@ -59,34 +71,96 @@ public class MediaStoreCompat {
         return values;
     }
 
-    private static String getAvailableName(ContentResolver resolver, String name,
-                                           String baseName, String extension, int time) {
-        boolean got = true;
+    private static void write(ContentResolver resolver, File file, Uri uri) throws IOException {
+        if (uri == null) {
+            throw new IOException("Cannot insert media.");
+        }
+        try (final FileInputStream input = new FileInputStream(file);
+             final ParcelFileDescriptor descriptor = resolver.openFileDescriptor(uri, "w")) {
+            if (descriptor == null) {
+                throw new FileNotFoundException("Cannot open " + uri);
+            }
+            // 流无需关闭，由 ParcelFileDescriptor 关闭
+            final FileOutputStream output = new FileOutputStream(descriptor.getFileDescriptor());
+            if (descriptor.getStatSize() >= 0) {
+                StreamUtils.transfer(input.getChannel(), output.getChannel(), null, null);
+            } else {
+                StreamUtils.copy(input, output, file.length(), null, null);
+            }
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    /**
+     * 查询已使用的名称
+     * 仅投影 DISPLAY_NAME，一次查询获取原名称及所有“名称 - 序号.拓展名”形式的名称
+     */
+    private static Set<String> queryUsedNames(ContentResolver resolver, String name,
+                                              String prefix, String suffix) {
+        final Set<String> names = new HashSet<>();
+        final String column = MediaStore.Images.Media.DISPLAY_NAME;
         try (final Cursor cursor = resolver.query(MediaStore.Images.Media.EXTERNAL_CONTENT_URI,
-                null, MediaStore.Images.Media.DISPLAY_NAME + " = ?",
-                new String[]{name}, null)) {
-            while (cursor.moveToNext()) {
-                got = false;
+                new String[]{column},
+                column + " = ? OR " + column + " LIKE ? ESCAPE '\\'",
+                new String[]{name, escapeLike(prefix) + "%" + escapeLike(suffix)}, null)) {
+            while (cursor != null && cursor.moveToNext()) {
+                names.add(cursor.getString(0));
+            }
+        }
+        return names;
+    }
+
+    private static String getAvailableName(Set<String> used, String name,
+                                           String prefix, String suffix) {
+        if (!used.contains(name)) {
+            return name;
+        }
+        final BitSet numbers = new BitSet();
+        for (String value : used) {
+            if (value == null || value.length() <= prefix.length() + suffix.length() ||
+                    !value.startsWith(prefix) || !value.endsWith(suffix)) {
+                continue;
+            }
+            try {
+                final int number = Integer.parseInt(
+                        value.substring(prefix.length(), value.length() - suffix.length()));
+                if (number > 0) {
+                    numbers.set(number);
+                }
+            } catch (NumberFormatException e) {
+                // 非序号名称
             }
         }
-        return got ? name : getAvailableName(resolver,
-                baseName + " - " + time + "." + extension, baseName, extension,
-                time + 1);
+        return prefix + numbers.nextClearBit(1) + suffix;
+    }
+
+    private static String getPrefix(String name) {
+        return FileUtils.getNameWithoutExtension(name) + " - ";
+    }
+
+    private static String getSuffix(String name) {
+        final String extension = FileUtils.getExtension(name, true);
+        return extension == null ? "" : "." + extension;
+    }
+
+    private static String getAvailableName(ContentResolver resolver, String name) {
+        final String prefix = getPrefix(name);
+        final String suffix = getSuffix(name);
+        return getAvailableName(queryUsedNames(resolver, name, prefix, suffix),
+                name, prefix, suffix);
     }
 
     private static void insertMediaImageBase(ContentResolver resolver,
                                              File file, String name, String mimeType)
             throws Exception {
-        final ContentValues values = getContentValues(
-                getAvailableName(resolver, name, FileUtils.getNameWithoutExtension(name),
-                        FileUtils.getExtension(name, true), 1), mimeType);
+        final ContentValues values = getContentValues(getAvailableName(resolver, name), mimeType);
         final Uri uri = resolver.insert(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, values);
-        try (final FileInputStream input = new FileInputStream(file);
-             final ParcelFileDescriptor.AutoCloseOutputStream output =
-                     new ParcelFileDescriptor.AutoCloseOutputStream(
-                             resolver.openFileDescriptor(uri, "w"))) {
-            StreamUtils.copy(input, output);
-        }
+        write(resolver, file, uri);
         values.put(MediaStore.Images.Media.SIZE, file.length());
         resolver.update(uri, values, null, null);
         values.clear();
@@ -110,4 +184,202 @@ public class MediaStoreCompat {
             insertMediaImageBase(resolver, file, name, mimeType);
         }
     }
+
+    /**
+     * 批量插入媒体图片
+     * 以有限的并行度在{@link ArchTaskExecutor#getDiskIOExecutor()}及调用线程中同时插入及写入，
+     * 最后通过一次批量操作完成所有图片（Android Q 及以上解除 IS_PENDING）
+     *
+     * @param resolver    ContentResolver
+     * @param images      图片
+     * @param parallelism 并行度
+     * @return 与输入顺序一致的图片链接，插入失败的图片对应null
+     * @throws InterruptedException 等待时被中断
+     */
+    public static List<Uri> insertMediaImages(ContentResolver resolver,
+                                              List<MediaImage> images, int parallelism)
+            throws InterruptedException {
+        return insertMediaImages(resolver, images, parallelism,
+                ArchTaskExecutor.getInstance().getDiskIOExecutor());
+    }
+
+    /**
+     * 批量插入媒体图片
+     *
+     * @param resolver    ContentResolver
+     * @param images      图片
+     * @param parallelism 并行度（包括调用线程）
+     * @param executor    线程池
+     * @return 与输入顺序一致的图片链接，插入失败的图片对应null
+     * @throws InterruptedException 等待时被中断，已插入的图片将被删除
+     */
+    public static List<Uri> insertMediaImages(ContentResolver resolver,
+                                              List<MediaImage> images, int parallelism,
+                                              Executor executor)
+            throws InterruptedException {
+        final int size = images.size();
+        final Uri[] uris = new Uri[size];
+        if (size == 0) {
+            return new ArrayList<>();
+        }
+        final String[] names = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q ?
+                null : getAvailableNames(resolver, images);
+        final ParallelWorkQueue queue =
+                new ParallelWorkQueue(executor, Math.max(1, Math.min(parallelism, size)));
+        for (int i = 0; i < size; i++) {
+            final int index = i;
+            queue.add(() -> uris[index] = insertPending(resolver, images.get(index),
+                    names == null ? null : names[index]));
+        }
+        try {
+            queue.drain();
+        } catch (InterruptedException e) {
+            // 执行中的任务已结束，删除已插入的图片
+            for (Uri uri : uris) {
+                if (uri != null) {
+                    try {
+                        resolver.delete(uri, null, null);
+                    } catch (Throwable ignore) {
+                        // 删除失败
+                    }
+                }
+            }
+            throw e;
+        }
+        finishPending(resolver, images, uris);
+        return new ArrayList<>(Arrays.asList(uris));
+    }
+
+    private static String[] getAvailableNames(ContentResolver resolver,
+                                              List<MediaImage> images) {
+        final String[] names = new String[images.size()];
+        final Map<String, Set<String>> usedNames = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            final String name = images.get(i).mName;
+            final String prefix = getPrefix(name);
+            final String suffix = getSuffix(name);
+            final String key = prefix + '/' + suffix;
+            Set<String> used = usedNames.get(key);
+            try {
+                if (used == null) {
+                    used = queryUsedNames(resolver, name, prefix, suffix);
+                    usedNames.put(key, used);
+                } else if (!used.contains(name)) {
+                    // 前缀及拓展名相同但名称不同，补充查询
+                    used.addAll(queryUsedNames(resolver, name, prefix, suffix));
+                }
+                names[i] = getAvailableName(used, name, prefix, suffix);
+                used.add(names[i]);
+            } catch (Throwable t) {
+                names[i] = name;
+            }
+        }
+        return names;
+    }
+
+    @Nullable
+    private static Uri insertPending(ContentResolver resolver, MediaImage image,
+                                     @Nullable String name) {
+        final Uri uri;
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                uri = insertPendingQ(resolver, image);
+            } else {
+                uri = resolver.insert(MediaStore.Images.Media.EXTERNAL_CONTENT_URI,
+                        getContentValues(name, image.mMimeType));
+            }
+        } catch (Throwable t) {
+            return null;
+        }
+        if (uri == null) {
+            return null;
+        }
+        try {
+            write(resolver, image.mFile, uri);
+            return uri;
+        } catch (Throwable t) {
+            try {
+                resolver.delete(uri, null, null);
+            } catch (Throwable ignore) {
+                // 删除失败
+            }
+            return null;
+        }
+    }
+
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private static Uri insertPendingQ(ContentResolver resolver, MediaImage image) {
+        final ContentValues values = getContentValues(image.mName, image.mMimeType);
+        values.put(MediaStore.Images.Media.IS_PENDING, 1);
+        return resolver.insert(MediaStore.Images.Media
+                .getContentUri(MediaStore.VOLUME_EXTERNAL_PRIMARY), values);
+    }
+
+    private static void finishPending(ContentResolver resolver, List<MediaImage> images,
+                                      Uri[] uris) {
+        final ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+        for (int i = 0; i < uris.length; i++) {
+            if (uris[i] != null) {
+                operations.add(ContentProviderOperation.newUpdate(uris[i])
+                        .withValues(getFinishValues(images.get(i)))
+                        .build());
+            }
+        }
+        if (operations.isEmpty()) {
+            return;
+        }
+        try {
+            resolver.applyBatch(MediaStore.AUTHORITY, operations);
+            return;
+        } catch (Throwable t) {
+            // 批量操作失败时逐个完成
+        }
+        for (int i = 0; i < uris.length; i++) {
+            if (uris[i] == null) {
+                continue;
+            }
+            try {
+                resolver.update(uris[i], getFinishValues(images.get(i)), null, null);
+            } catch (Throwable t) {
+                uris[i] = null;
+            }
+        }
+    }
+
+    private static ContentValues getFinishValues(MediaImage image) {
+        final ContentValues values = new ContentValues();
+        values.put(MediaStore.Images.Media.SIZE, image.mFile.length());
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            putNotPendingQ(values);
+        }
+        return values;
+    }
+
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private static void putNotPendingQ(ContentValues values) {
+        values.put(MediaStore.Images.Media.IS_PENDING, 0);
+    }
+
+    /**
+     * 媒体图片
+     */
+    public static class MediaImage {
+        private final File mFile;
+        private final String mName;
+        @Nullable
+        private final String mMimeType;
+
+        /**
+         * 媒体图片
+         *
+         * @param file     图片文件
+         * @param name     图片文件名（必须有拓展名）
+         * @param mimeType 图片MIME类型
+         */
+        public MediaImage(@NonNull File file, @NonNull String name, @Nullable String mimeType) {
+            mFile = file;
+            mName = name;
+            mMimeType = mimeType;
+        }
+    }
 }
@@ -19,18 +19,89 @@ package com.am.tool.support.other;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
+import android.view.Choreographer;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A static class that serves as a central point to execute common tasks.
+ * <p>
+ * Besides the main thread, it manages two shared pools: a small disk IO pool, bounded so that
+ * concurrent file operations do not oversubscribe the storage controller, and a CPU pool sized
+ * to the number of cores for computation such as hashing in-memory data. A shared fork/join
+ * pool serves recursive work over file trees.
  */
 public class ArchTaskExecutor {
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int DISK_IO_THREADS = Math.max(2, Math.min(4, CPU_COUNT / 2));
+    private static final int CPU_THREADS = Math.max(1, CPU_COUNT);
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    private static final long COALESCE_TIMEOUT_MILLIS = 100;
+    private static final String CATEGORY_MAIN = "main";
+    private static final String CATEGORY_MAIN_COALESCED = "main_coalesced";
+    private static final String CATEGORY_DISK_IO = "disk_io";
+    private static final String CATEGORY_CPU = "cpu";
     private static volatile ArchTaskExecutor sInstance;
     private final Object mLock = new Object();
+    private final ExecutorMetrics mMetrics = new ExecutorMetrics(false);
+    private final AtomicInteger mMainPending = new AtomicInteger();
     @Nullable
     private volatile Handler mMainHandler;
+    @Nullable
+    private volatile ThreadPoolExecutor mDiskIO;
+    @Nullable
+    private volatile ExecutorService mCpu;
+    @Nullable
+    private volatile ForkJoinPool mForkJoin;
+    @Nullable
+    private volatile TaskScheduler mScheduler;
+    private final Object mCoalesceLock = new Object();
+    private LinkedHashMap<Object, Runnable> mCoalesced = new LinkedHashMap<>();
+    private boolean mFrameScheduled;
+    private boolean mCoalescedMeasured;
+    private long mCoalescedEnqueueTime;
+    private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            drainCoalesced();
+        }
+    };
+    private final Runnable mScheduleFrame = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+        }
+    };
+    private final Runnable mCoalesceTimeout = new Runnable() {
+        @Override
+        public void run() {
+            drainCoalesced();
+        }
+    };
+    private final Executor mMainThreadExecutor = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            postToMainThread(command);
+        }
+    };
 
     /**
      * Returns an instance of the task executor.
@@ -68,12 +139,232 @@ public class ArchTaskExecutor {
         }
     }
 
+    @NonNull
+    private ThreadPoolExecutor createPool(final String name, final String category, int threads,
+                                          final boolean prioritized) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, prioritized ?
+                new PriorityBlockingQueue<Runnable>() : new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger mThreadId = new AtomicInteger(0);
+
+                    @Override
+                    public Thread newThread(@NonNull Runnable r) {
+                        final Thread t = new Thread(r);
+                        t.setName(String.format(name, mThreadId.getAndIncrement()));
+                        return t;
+                    }
+                }) {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                if (mMetrics.isEnabled()) {
+                    command = mMetrics.wrap(category, getQueue().size(), command);
+                }
+                if (prioritized) {
+                    TaskScheduler.execute(this, TaskScheduler.PRIORITY_BACKGROUND, command);
+                } else {
+                    super.execute(command);
+                }
+            }
+        };
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     /**
-     * Posts the given task to the main thread.
+     * Returns the bounded executor for disk IO, creating it if needed.
+     * <p>
+     * It shares its threads and queue with {@link #getScheduler()}; tasks executed on it
+     * directly are queued at {@link TaskScheduler#PRIORITY_BACKGROUND}.
      *
-     * @param runnable The runnable to run on the main thread.
+     * @return The disk IO executor.
+     */
+    @NonNull
+    public ExecutorService getDiskIOExecutor() {
+        return getDiskIOThreadPool();
+    }
+
+    @NonNull
+    private ThreadPoolExecutor getDiskIOThreadPool() {
+        if (mDiskIO == null) {
+            synchronized (mLock) {
+                if (mDiskIO == null) {
+                    mDiskIO = createPool("arch_disk_io_%d", CATEGORY_DISK_IO, DISK_IO_THREADS,
+                            true);
+                }
+            }
+        }
+        //noinspection ConstantConditions
+        return mDiskIO;
+    }
+
+    /**
+     * Returns the executor for CPU bound work, sized to the number of cores.
+     *
+     * @return The CPU executor.
+     */
+    @NonNull
+    public ExecutorService getCpuExecutor() {
+        if (mCpu == null) {
+            synchronized (mLock) {
+                if (mCpu == null) {
+                    mCpu = createPool("arch_cpu_%d", CATEGORY_CPU, CPU_THREADS, false);
+                }
+            }
+        }
+        //noinspection ConstantConditions
+        return mCpu;
+    }
+
+    /**
+     * Returns the shared fork/join pool, sized to the number of cores, for recursive work over
+     * file trees such as scanning, copying and chunked hashing. Use it instead of creating a
+     * pool per operation.
+     *
+     * @return The fork/join pool.
+     */
+    @RequiresApi(Build.VERSION_CODES.LOLLIPOP)
+    @NonNull
+    public ForkJoinPool getForkJoinPool() {
+        if (mForkJoin == null) {
+            synchronized (mLock) {
+                if (mForkJoin == null) {
+                    mForkJoin = new ForkJoinPool(CPU_THREADS);
+                }
+            }
+        }
+        //noinspection ConstantConditions
+        return mForkJoin;
+    }
+
+    /**
+     * Returns the shared task scheduler, which runs prioritized, cancellable and deduplicated
+     * tasks on the disk IO pool, ahead of the tasks executed on that pool directly.
+     *
+     * @return The task scheduler.
+     */
+    @NonNull
+    public TaskScheduler getScheduler() {
+        if (mScheduler == null) {
+            synchronized (mLock) {
+                if (mScheduler == null) {
+                    mScheduler = new TaskScheduler(getDiskIOThreadPool(), mMetrics);
+                }
+            }
+        }
+        //noinspection ConstantConditions
+        return mScheduler;
+    }
+
+    /**
+     * Returns the queue wait, run time and queue depth metrics recorded for the disk IO and
+     * CPU pools, the scheduler and main thread posts.
+     * <p>
+     * Metrics are disabled by default so that posting stays allocation free; enable them with
+     * {@link ExecutorMetrics#setEnabled(boolean)}. Coalesced main thread posts record the queue
+     * depth per post, and the wait of the oldest task and the run time per batch.
+     *
+     * @return The metrics.
+     */
+    @NonNull
+    public ExecutorMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Returns an executor that posts to the main thread.
+     *
+     * @return The main thread executor.
+     */
+    @NonNull
+    public Executor getMainThreadExecutor() {
+        return mMainThreadExecutor;
+    }
+
+    /**
+     * Executes the given task in the disk IO thread pool.
+     *
+     * @param runnable The runnable to run in the disk IO thread pool.
      */
-    public void postToMainThread(@NonNull Runnable runnable) {
+    public void executeOnDiskIO(@NonNull Runnable runnable) {
+        getDiskIOExecutor().execute(runnable);
+    }
+
+    /**
+     * Executes the given task in the CPU thread pool.
+     *
+     * @param runnable The runnable to run in the CPU thread pool.
+     */
+    public void executeOnCpu(@NonNull Runnable runnable) {
+        getCpuExecutor().execute(runnable);
+    }
+
+    /**
+     * Submits the given task to the disk IO thread pool.
+     *
+     * @param callable The task.
+     * @param callback Receives the result on the main thread, not called if cancelled.
+     * @param <T>      The result type.
+     * @return A future that can be used to cancel the task or wait for its result.
+     */
+    @NonNull
+    public <T> Future<T> submitToDiskIO(@NonNull Callable<T> callable,
+                                        @Nullable Callback<? super T> callback) {
+        return submit(getDiskIOExecutor(), callable, callback);
+    }
+
+    /**
+     * Submits the given task to the CPU thread pool.
+     *
+     * @param callable The task.
+     * @param callback Receives the result on the main thread, not called if cancelled.
+     * @param <T>      The result type.
+     * @return A future that can be used to cancel the task or wait for its result.
+     */
+    @NonNull
+    public <T> Future<T> submitToCpu(@NonNull Callable<T> callable,
+                                     @Nullable Callback<? super T> callback) {
+        return submit(getCpuExecutor(), callable, callback);
+    }
+
+    @NonNull
+    private <T> Future<T> submit(@NonNull Executor executor, @NonNull Callable<T> callable,
+                                 @Nullable final Callback<? super T> callback) {
+        final FutureTask<T> task = new FutureTask<T>(callable) {
+            @Override
+            protected void done() {
+                if (callback == null || isCancelled()) {
+                    return;
+                }
+                T result = null;
+                Throwable error = null;
+                try {
+                    result = get();
+                } catch (ExecutionException e) {
+                    error = e.getCause() == null ? e : e.getCause();
+                } catch (CancellationException | InterruptedException e) {
+                    return;
+                }
+                final T value = result;
+                final Throwable failure = error;
+                postToMainThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (failure == null) {
+                            callback.onSuccess(value);
+                        } else {
+                            callback.onFailure(failure);
+                        }
+                    }
+                });
+            }
+        };
+        executor.execute(task);
+        return task;
+    }
+
+    @NonNull
+    private Handler getMainHandler() {
         if (mMainHandler == null) {
             synchronized (mLock) {
                 if (mMainHandler == null) {
@@ -82,7 +373,138 @@ public class ArchTaskExecutor {
             }
         }
         //noinspection ConstantConditions
-        mMainHandler.post(runnable);
+        return mMainHandler;
+    }
+
+    /**
+     * Posts the given task to the main thread.
+     *
+     * @param runnable The runnable to run on the main thread.
+     */
+    public void postToMainThread(@NonNull final Runnable runnable) {
+        if (!mMetrics.isEnabled()) {
+            getMainHandler().post(runnable);
+            return;
+        }
+        final Runnable measured =
+                mMetrics.wrap(CATEGORY_MAIN, mMainPending.getAndIncrement(), runnable);
+        getMainHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                mMainPending.decrementAndGet();
+                measured.run();
+            }
+        });
+    }
+
+    /**
+     * Posts the given task to the main thread, coalesced with other such tasks.
+     * <p>
+     * Tasks posted between two frames are run together, in posting order, in a single frame
+     * callback instead of one message each. Use this for high frequency updates such as
+     * progress reporting. Frames are not produced while the display is off, so pending tasks
+     * are also run after a short timeout if no frame arrives.
+     *
+     * @param runnable The runnable to run on the main thread.
+     */
+    public void postToMainThreadCoalesced(@NonNull Runnable runnable) {
+        postToMainThreadCoalesced(new Object(), runnable);
+    }
+
+    /**
+     * Posts the given task to the main thread, coalesced with other such tasks.
+     * <p>
+     * Only the latest task posted for a key before the next frame is run, at the position of
+     * the first task posted for that key.
+     *
+     * @param key      The key used to replace pending tasks, compared with equals.
+     * @param runnable The runnable to run on the main thread.
+     */
+    public void postToMainThreadCoalesced(@NonNull Object key, @NonNull Runnable runnable) {
+        final boolean schedule;
+        synchronized (mCoalesceLock) {
+            mCoalesced.put(key, runnable);
+            schedule = !mFrameScheduled;
+            mFrameScheduled = true;
+            if (mMetrics.isEnabled()) {
+                final long time =
+                        mMetrics.onEnqueue(CATEGORY_MAIN_COALESCED, mCoalesced.size() - 1);
+                if (schedule) {
+                    mCoalescedMeasured = true;
+                    mCoalescedEnqueueTime = time;
+                }
+            } else if (schedule) {
+                mCoalescedMeasured = false;
+            }
+        }
+        if (!schedule) {
+            return;
+        }
+        final Handler handler = getMainHandler();
+        if (isMainThread()) {
+            mScheduleFrame.run();
+        } else {
+            // Choreographer is bound to the looper of the calling thread.
+            handler.post(mScheduleFrame);
+        }
+        handler.postDelayed(mCoalesceTimeout, COALESCE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Removes the pending coalesced task for the given key.
+     *
+     * @param key The key given to {@link #postToMainThreadCoalesced(Object, Runnable)}.
+     */
+    public void removeCoalesced(@NonNull Object key) {
+        synchronized (mCoalesceLock) {
+            mCoalesced.remove(key);
+        }
+    }
+
+    private void drainCoalesced() {
+        // Whichever of the frame callback and the timeout comes first cancels the other. This
+        // is done before the swap so that a frame scheduled by a later post is not cancelled.
+        final Handler handler = getMainHandler();
+        handler.removeCallbacks(mScheduleFrame);
+        handler.removeCallbacks(mCoalesceTimeout);
+        Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+        final LinkedHashMap<Object, Runnable> tasks;
+        final boolean measured;
+        final long enqueueTime;
+        synchronized (mCoalesceLock) {
+            tasks = mCoalesced;
+            mCoalesced = new LinkedHashMap<>();
+            mFrameScheduled = false;
+            measured = mCoalescedMeasured;
+            enqueueTime = mCoalescedEnqueueTime;
+        }
+        final long start = measured ? mMetrics.onStart(CATEGORY_MAIN_COALESCED, enqueueTime) : 0;
+        // Tasks posted while draining are run in the next frame. A failing task does not
+        // prevent the others from running, the first failure is rethrown afterwards.
+        RuntimeException exception = null;
+        Error error = null;
+        for (Runnable runnable : tasks.values()) {
+            try {
+                runnable.run();
+            } catch (RuntimeException e) {
+                if (exception == null && error == null) {
+                    exception = e;
+                }
+            } catch (Error e) {
+                if (exception == null && error == null) {
+                    error = e;
+                }
+            }
+        }
+        if (measured) {
+            mMetrics.onFinish(CATEGORY_MAIN_COALESCED, start);
+        }
+        if (exception != null) {
+            throw exception;
+        }
+        if (error != null) {
+            throw error;
+        }
     }
 
     /**
@@ -93,4 +515,26 @@ public class ArchTaskExecutor {
     public boolean isMainThread() {
         return Looper.getMainLooper().getThread() == Thread.currentThread();
     }
+
+    /**
+     * Receives the result of a submitted task on the main thread.
+     *
+     * @param <T> The result type.
+     */
+    public interface Callback<T> {
+
+        /**
+         * Called on the main thread when the task completes normally.
+         *
+         * @param result The result.
+         */
+        void onSuccess(T result);
+
+        /**
+         * Called on the main thread when the task throws.
+         *
+         * @param error The error.
+         */
+        void onFailure(@NonNull Throwable error);
+    }
 }
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2026 AlexMofer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.am.tool.support.other;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.CancellationSignal;
+
+import androidx.annotation.Nullable;
+
+import com.am.tool.support.security.MessageDigestResult;
+import com.am.tool.support.security.MessageDigestUtils;
+import com.am.tool.support.utils.FileUtils;
+import com.am.tool.support.utils.StreamUtils;
+import com.am.tool.support.utils.UriMetadata;
+import com.am.tool.support.utils.UriUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.Future;
+
+/**
+ * 异步文件任务
+ * 文件读写在{@link ArchTaskExecutor#getDiskIOExecutor()}中执行，内存数据计算在
+ * {@link ArchTaskExecutor#getCpuExecutor()}中执行，结果在主线程回调；
+ * 进度监听在工作线程中调用，取消{@link Future}不会中断读写，需中断时传入取消信号
+ * Created by Alex on 2026/10/17.
+ */
+public class AsyncFileTasks {
+
+    private AsyncFileTasks() {
+        //no instance
+    }
+
+    private static ArchTaskExecutor getExecutor() {
+        return ArchTaskExecutor.getInstance();
+    }
+
+    /**
+     * 复制文件
+     *
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号
+     * @param callback 回调，结果为复制的字节数
+     * @return Future
+     */
+    public static Future<Long> copy(File source, File target,
+                                    @Nullable StreamUtils.ProgressListener listener,
+                                    @Nullable CancellationSignal signal,
+                                    @Nullable ArchTaskExecutor.Callback<Long> callback) {
+        return getExecutor().submitToDiskIO(
+                () -> FileUtils.copyOrThrow(source, target, listener, signal), callback);
+    }
+
+    /**
+     * 复制
+     *
+     * @param context  Context
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号
+     * @param callback 回调，结果为复制的字节数
+     * @return Future
+     */
+    public static Future<Long> copy(Context context, Uri source, Uri target,
+                                    @Nullable StreamUtils.ProgressListener listener,
+                                    @Nullable CancellationSignal signal,
+                                    @Nullable ArchTaskExecutor.Callback<Long> callback) {
+        final Context app = context.getApplicationContext();
+        return getExecutor().submitToDiskIO(
+                () -> UriUtils.copyOrThrow(app, source, target, listener, signal), callback);
+    }
+
+    /**
+     * 复制
+     *
+     * @param context  Context
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号
+     * @param callback 回调，结果为复制的字节数
+     * @return Future
+     */
+    public static Future<Long> copy(Context context, Uri source, File target,
+                                    @Nullable StreamUtils.ProgressListener listener,
+                                    @Nullable CancellationSignal signal,
+                                    @Nullable ArchTaskExecutor.Callback<Long> callback) {
+        final Context app = context.getApplicationContext();
+        return getExecutor().submitToDiskIO(
+                () -> UriUtils.copyOrThrow(app, source, target, listener, signal), callback);
+    }
+
+    /**
+     * 复制
+     *
+     * @param context  Context
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号
+     * @param callback 回调，结果为复制的字节数
+     * @return Future
+     */
+    public static Future<Long> copy(Context context, File source, Uri target,
+                                    @Nullable StreamUtils.ProgressListener listener,
+                                    @Nullable CancellationSignal signal,
+                                    @Nullable ArchTaskExecutor.Callback<Long> callback) {
+        final Context app = context.getApplicationContext();
+        return getExecutor().submitToDiskIO(
+                () -> UriUtils.copyOrThrow(app, source, target, listener, signal), callback);
+    }
+
+    /**
+     * 复制文件并计算信息摘要
+     *
+     * @param source     源文件
+     * @param target     目标文件
+     * @param verify     是否校验目标文件
+     * @param signal     取消信号
+     * @param callback   回调
+     * @param algorithms 算法
+     * @return Future
+     */
+    public static Future<MessageDigestResult> copyAndDigest(
+            File source, File target, boolean verify, @Nullable CancellationSignal signal,
+            @Nullable ArchTaskExecutor.Callback<MessageDigestResult> callback,
+            String... algorithms) {
+        return getExecutor().submitToDiskIO(() -> FileUtils.copyAndDigestOrThrow(
+                source, target, verify, null, signal, algorithms), callback);
+    }
+
+    /**
+     * 删除文件及文件夹
+     *
+     * @param file     文件及文件夹
+     * @param callback 回调，结果为是否删除成功
+     * @return Future
+     */
+    public static Future<Boolean> delete(File file,
+                                         @Nullable ArchTaskExecutor.Callback<Boolean> callback) {
+        return getExecutor().submitToDiskIO(() -> FileUtils.delete(file), callback);
+    }
+
+    /**
+     * 读取文件
+     *
+     * @param file     文件
+     * @param callback 回调
+     * @return Future
+     */
+    public static Future<byte[]> readBytes(File file,
+                                           @Nullable ArchTaskExecutor.Callback<byte[]> callback) {
+        return getExecutor().submitToDiskIO(() -> FileUtils.readBytesOrThrow(file), callback);
+    }
+
+    /**
+     * 读取文件
+     *
+     * @param file     文件
+     * @param cs       字符集
+     * @param callback 回调，读取失败时结果为null
+     * @return Future
+     */
+    public static Future<String> readString(File file, Charset cs,
+                                            @Nullable ArchTaskExecutor.Callback<String> callback) {
+        return getExecutor().submitToDiskIO(() -> FileUtils.readString(file, cs), callback);
+    }
+
+    /**
+     * 原子写入文件
+     *
+     * @param file     文件
+     * @param content  内容
+     * @param sync     是否同步到存储设备
+     * @param callback 回调，结果为是否写入成功
+     * @return Future
+     */
+    public static Future<Boolean> writeBytesAtomic(
+            File file, byte[] content, boolean sync,
+            @Nullable ArchTaskExecutor.Callback<Boolean> callback) {
+        return getExecutor().submitToDiskIO(
+                () -> FileUtils.writeBytesAtomic(file, content, sync), callback);
+    }
+
+    /**
+     * 获取元数据
+     *
+     * @param context  Context
+     * @param uri      链接
+     * @param callback 回调，查询失败时结果为null
+     * @return Future
+     */
+    public static Future<UriMetadata> getMetadata(
+            Context context, Uri uri, @Nullable ArchTaskExecutor.Callback<UriMetadata> callback) {
+        final Context app = context.getApplicationContext();
+        return getExecutor().submitToDiskIO(() -> UriUtils.getMetadata(app, uri), callback);
+    }
+
+    /**
+     * 获取文件 MD5
+     *
+     * @param file     文件
+     * @param callback 回调
+     * @return Future
+     */
+    public static Future<String> getMD5(File file,
+                                        @Nullable ArchTaskExecutor.Callback<String> callback) {
+        return getExecutor().submitToDiskIO(() -> {
+            final String md5 = MessageDigestUtils.getMD5(file);
+            if (md5 == null) {
+                throw new IOException("Cannot read " + file);
+            }
+            return md5;
+        }, callback);
+    }
+
+    /**
+     * 获取文件 MD5
+     *
+     * @param context  Context
+     * @param uri      链接
+     * @param callback 回调
+     * @return Future
+     */
+    public static Future<String> getMD5(Context context, Uri uri,
+                                        @Nullable ArchTaskExecutor.Callback<String> callback) {
+        final Context app = context.getApplicationContext();
+        return getExecutor().submitToDiskIO(() -> {
+            final String md5 = MessageDigestUtils.getMD5(app, uri);
+            if (md5 == null) {
+                throw new IOException("Cannot read " + uri);
+            }
+            return md5;
+        }, callback);
+    }
+
+    /**
+     * 获取信息摘要
+     *
+     * @param input     数据源
+     * @param algorithm 算法
+     * @param callback  回调，算法不支持时结果为null
+     * @return Future
+     */
+    public static Future<byte[]> getMessageDigest(
+            byte[] input, String algorithm, @Nullable ArchTaskExecutor.Callback<byte[]> callback) {
+        return getExecutor().submitToCpu(
+                () -> MessageDigestUtils.getMessageDigest(input, algorithm), callback);
+    }
+}
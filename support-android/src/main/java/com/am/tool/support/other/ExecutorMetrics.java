@@ -0,0 +1,412 @@
+/*
+ * Copyright (C) 2026 AlexMofer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.am.tool.support.other;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 执行器统计
+ * 按任务类别记录排队等待时间、执行时间及入队时的队列深度，使用无锁的以2为底对数分桶直方图，
+ * 记录开销仅为几次原子操作；关闭后{@link #wrap(String, int, Runnable)}直接返回原任务，不产生额外开销
+ * Created by Alex on 2026/10/17.
+ */
+public class ExecutorMetrics {
+
+    private static final String TAG = "ExecutorMetrics";
+    private final ConcurrentHashMap<String, Category> mCategories = new ConcurrentHashMap<>();
+    private final Object mLock = new Object();
+    private volatile boolean mEnabled;
+    @Nullable
+    private ScheduledExecutorService mLogger;
+
+    public ExecutorMetrics() {
+        this(true);
+    }
+
+    /**
+     * 执行器统计
+     *
+     * @param enabled 是否开启
+     */
+    public ExecutorMetrics(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    /**
+     * 设置是否开启，关闭后使用方不再记录，已有统计保留
+     *
+     * @param enabled 是否开启
+     */
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    /**
+     * 判断是否开启
+     *
+     * @return 开启时返回true
+     */
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * 记录任务入队
+     *
+     * @param category   类别
+     * @param queueDepth 入队时的队列深度
+     * @return 入队时间（纳秒），用于{@link #onStart(String, long)}
+     */
+    public long onEnqueue(String category, int queueDepth) {
+        getCategory(category).mQueueDepth.record(queueDepth);
+        return System.nanoTime();
+    }
+
+    /**
+     * 记录任务开始执行
+     *
+     * @param category    类别
+     * @param enqueueTime 入队时间（纳秒）
+     * @return 开始时间（纳秒），用于{@link #onFinish(String, long)}
+     */
+    public long onStart(String category, long enqueueTime) {
+        final long now = System.nanoTime();
+        getCategory(category).mQueueWait.record(now - enqueueTime);
+        return now;
+    }
+
+    /**
+     * 记录任务执行结束
+     *
+     * @param category  类别
+     * @param startTime 开始时间（纳秒）
+     */
+    public void onFinish(String category, long startTime) {
+        getCategory(category).mRunTime.record(System.nanoTime() - startTime);
+    }
+
+    /**
+     * 包装任务，执行时记录等待及执行时间
+     *
+     * @param category   类别
+     * @param queueDepth 入队时的队列深度
+     * @param runnable   任务
+     * @return 包装后的任务，未开启时返回原任务
+     */
+    @NonNull
+    public Runnable wrap(final String category, int queueDepth,
+                         @NonNull final Runnable runnable) {
+        if (!mEnabled) {
+            return runnable;
+        }
+        final long enqueueTime = onEnqueue(category, queueDepth);
+        return new Runnable() {
+            @Override
+            public void run() {
+                final long start = onStart(category, enqueueTime);
+                try {
+                    runnable.run();
+                } finally {
+                    onFinish(category, start);
+                }
+            }
+        };
+    }
+
+    private Category getCategory(String name) {
+        final Category category = mCategories.get(name);
+        if (category != null) {
+            return category;
+        }
+        final Category created = new Category();
+        final Category previous = mCategories.putIfAbsent(name, created);
+        return previous == null ? created : previous;
+    }
+
+    /**
+     * 获取快照
+     *
+     * @return 按类别名称排序的快照
+     */
+    @NonNull
+    public Map<String, CategorySnapshot> getSnapshot() {
+        final TreeMap<String, CategorySnapshot> snapshot = new TreeMap<>();
+        for (Map.Entry<String, Category> entry : mCategories.entrySet()) {
+            final Category category = entry.getValue();
+            snapshot.put(entry.getKey(), new CategorySnapshot(category.mQueueWait.snapshot(),
+                    category.mRunTime.snapshot(), category.mQueueDepth.snapshot()));
+        }
+        return snapshot;
+    }
+
+    /**
+     * 清空统计
+     * 原地清零，不移除类别，同时进行的记录不会丢失
+     */
+    public void reset() {
+        for (Category category : mCategories.values()) {
+            category.mQueueWait.reset();
+            category.mRunTime.reset();
+            category.mQueueDepth.reset();
+        }
+    }
+
+    /**
+     * 开始定期输出日志
+     *
+     * @param intervalMillis 间隔（毫秒）
+     */
+    public void startLogging(long intervalMillis) {
+        synchronized (mLock) {
+            stopLogging();
+            final ScheduledThreadPoolExecutor logger = new ScheduledThreadPoolExecutor(1,
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(@NonNull Runnable r) {
+                            final Thread t = new Thread(r, TAG);
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+            logger.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    log();
+                }
+            }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+            mLogger = logger;
+        }
+    }
+
+    /**
+     * 停止定期输出日志
+     */
+    public void stopLogging() {
+        synchronized (mLock) {
+            if (mLogger != null) {
+                mLogger.shutdownNow();
+                mLogger = null;
+            }
+        }
+    }
+
+    /**
+     * 输出日志
+     */
+    public void log() {
+        for (Map.Entry<String, CategorySnapshot> entry : getSnapshot().entrySet()) {
+            Log.i(TAG, entry.getKey() + ": " + entry.getValue());
+        }
+    }
+
+    /**
+     * 类别快照
+     */
+    public static class CategorySnapshot {
+        private final HistogramSnapshot mQueueWait;
+        private final HistogramSnapshot mRunTime;
+        private final HistogramSnapshot mQueueDepth;
+
+        private CategorySnapshot(HistogramSnapshot queueWait, HistogramSnapshot runTime,
+                                 HistogramSnapshot queueDepth) {
+            mQueueWait = queueWait;
+            mRunTime = runTime;
+            mQueueDepth = queueDepth;
+        }
+
+        /**
+         * 获取排队等待时间（纳秒）
+         *
+         * @return 排队等待时间
+         */
+        public HistogramSnapshot getQueueWait() {
+            return mQueueWait;
+        }
+
+        /**
+         * 获取执行时间（纳秒）
+         *
+         * @return 执行时间
+         */
+        public HistogramSnapshot getRunTime() {
+            return mRunTime;
+        }
+
+        /**
+         * 获取入队时的队列深度
+         *
+         * @return 队列深度
+         */
+        public HistogramSnapshot getQueueDepth() {
+            return mQueueDepth;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "count=" + mRunTime.getCount() +
+                    ", wait(us) p50=" + mQueueWait.getPercentile(50) / 1000 +
+                    " p99=" + mQueueWait.getPercentile(99) / 1000 +
+                    " max=" + mQueueWait.getMax() / 1000 +
+                    ", run(us) p50=" + mRunTime.getPercentile(50) / 1000 +
+                    " p99=" + mRunTime.getPercentile(99) / 1000 +
+                    " max=" + mRunTime.getMax() / 1000 +
+                    ", depth p50=" + mQueueDepth.getPercentile(50) +
+                    " max=" + mQueueDepth.getMax();
+        }
+    }
+
+    /**
+     * 直方图快照
+     * 第i个桶（i大于0）统计[2^(i-1), 2^i)范围内的值，第0个桶统计0
+     */
+    public static class HistogramSnapshot {
+        private final long[] mBuckets;
+        private final long mCount;
+        private final long mSum;
+        private final long mMax;
+
+        private HistogramSnapshot(long[] buckets, long sum, long max) {
+            long count = 0;
+            for (long bucket : buckets) {
+                count += bucket;
+            }
+            mBuckets = buckets;
+            mCount = count;
+            mSum = sum;
+            mMax = max;
+        }
+
+        /**
+         * 获取记录数
+         *
+         * @return 记录数
+         */
+        public long getCount() {
+            return mCount;
+        }
+
+        /**
+         * 获取总和
+         *
+         * @return 总和
+         */
+        public long getSum() {
+            return mSum;
+        }
+
+        /**
+         * 获取平均值
+         *
+         * @return 平均值
+         */
+        public long getMean() {
+            return mCount == 0 ? 0 : mSum / mCount;
+        }
+
+        /**
+         * 获取最大值
+         *
+         * @return 最大值
+         */
+        public long getMax() {
+            return mMax;
+        }
+
+        /**
+         * 获取百分位数
+         *
+         * @param percentile 百分位，0-100
+         * @return 所在桶的上界（不超过最大值）
+         */
+        public long getPercentile(double percentile) {
+            if (mCount == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(mCount * percentile / 100));
+            long count = 0;
+            for (int i = 0; i < mBuckets.length; i++) {
+                count += mBuckets[i];
+                if (count >= rank) {
+                    return i == 0 ? 0 : Math.min(mMax, i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                }
+            }
+            return mMax;
+        }
+
+        /**
+         * 获取各桶的记录数
+         *
+         * @return 各桶的记录数
+         */
+        public long[] getBuckets() {
+            return mBuckets.clone();
+        }
+    }
+
+    private static class Category {
+        final Histogram mQueueWait = new Histogram();
+        final Histogram mRunTime = new Histogram();
+        final Histogram mQueueDepth = new Histogram();
+    }
+
+    private static class Histogram {
+        final AtomicLongArray mBuckets = new AtomicLongArray(65);
+        final AtomicLong mSum = new AtomicLong();
+        final AtomicLong mMax = new AtomicLong();
+
+        void record(long value) {
+            final long v = Math.max(0, value);
+            mBuckets.incrementAndGet(64 - Long.numberOfLeadingZeros(v));
+            mSum.addAndGet(v);
+            long max;
+            while (v > (max = mMax.get())) {
+                if (mMax.compareAndSet(max, v)) {
+                    break;
+                }
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < mBuckets.length(); i++) {
+                mBuckets.set(i, 0);
+            }
+            mSum.set(0);
+            mMax.set(0);
+        }
+
+        HistogramSnapshot snapshot() {
+            final long[] buckets = new long[mBuckets.length()];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = mBuckets.get(i);
+            }
+            return new HistogramSnapshot(buckets, mSum.get(), mMax.get());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2026 AlexMofer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.am.tool.support.other;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 并行工作队列
+ * 在共享线程池上以有限的并行度执行一组任务，调用线程在{@link #drain()}中同样执行任务；
+ * 线程池中的辅助任务队列为空时即退出，不占用线程等待，线程池已满或调用线程即在该线程池中时也不会死锁；
+ * 任务执行中可继续添加任务。任务应自行处理异常
+ * Created by Alex on 2026/10/17.
+ */
+public class ParallelWorkQueue {
+
+    private final Object mLock = new Object();
+    private final ArrayDeque<Runnable> mTasks = new ArrayDeque<>();
+    private final Executor mExecutor;
+    private final int mMaxHelpers;
+    // 已提交到线程池且尚未退出的辅助任务数，包括仍在排队的
+    private int mHelpers;
+    private int mRunning;
+    private boolean mAborted;
+    private final Runnable mHelper = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                Runnable task;
+                while ((task = poll()) != null) {
+                    execute(task);
+                }
+            } finally {
+                synchronized (mLock) {
+                    mHelpers--;
+                }
+            }
+        }
+    };
+
+    /**
+     * 并行工作队列
+     *
+     * @param executor    线程池
+     * @param parallelism 并行度，包括调用线程
+     */
+    public ParallelWorkQueue(@NonNull Executor executor, int parallelism) {
+        mExecutor = executor;
+        mMaxHelpers = Math.max(0, parallelism - 1);
+    }
+
+    /**
+     * 添加任务，已中止时忽略
+     *
+     * @param task 任务
+     */
+    public void add(@NonNull Runnable task) {
+        final boolean spawn;
+        synchronized (mLock) {
+            if (mAborted) {
+                return;
+            }
+            mTasks.add(task);
+            spawn = mHelpers < mMaxHelpers;
+            if (spawn) {
+                mHelpers++;
+            }
+            mLock.notifyAll();
+        }
+        if (spawn) {
+            try {
+                mExecutor.execute(mHelper);
+            } catch (RejectedExecutionException e) {
+                // 由调用线程执行
+                synchronized (mLock) {
+                    mHelpers--;
+                }
+            }
+        }
+    }
+
+    /**
+     * 在调用线程中执行任务，直到所有任务（包括执行中添加的）均已结束
+     *
+     * @throws InterruptedException 被中断，此时丢弃未开始的任务，并等待执行中的任务结束后抛出
+     */
+    public void drain() throws InterruptedException {
+        Runnable task;
+        while ((task = take()) != null) {
+            execute(task);
+        }
+    }
+
+    private Runnable take() throws InterruptedException {
+        synchronized (mLock) {
+            while (true) {
+                if (Thread.interrupted()) {
+                    abort();
+                }
+                final Runnable task = mTasks.poll();
+                if (task != null) {
+                    mRunning++;
+                    return task;
+                }
+                if (mRunning == 0) {
+                    return null;
+                }
+                try {
+                    mLock.wait();
+                } catch (InterruptedException e) {
+                    abort();
+                }
+            }
+        }
+    }
+
+    private void abort() throws InterruptedException {
+        // 已持有锁
+        mAborted = true;
+        mTasks.clear();
+        boolean waiting = true;
+        while (waiting) {
+            try {
+                while (mRunning > 0) {
+                    mLock.wait();
+                }
+                waiting = false;
+            } catch (InterruptedException ignore) {
+                // 继续等待执行中的任务
+            }
+        }
+        throw new InterruptedException();
+    }
+
+    private Runnable poll() {
+        synchronized (mLock) {
+            final Runnable task = mTasks.poll();
+            if (task != null) {
+                mRunning++;
+            }
+            return task;
+        }
+    }
+
+    private void execute(Runnable task) {
+        try {
+            task.run();
+        } finally {
+            synchronized (mLock) {
+                mRunning--;
+                mLock.notifyAll();
+            }
+        }
+    }
+}
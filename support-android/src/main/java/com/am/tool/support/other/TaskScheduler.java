@@ -0,0 +1,475 @@
+/*
+ * Copyright (C) 2026 AlexMofer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.am.tool.support.other;
+
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 任务调度器
+ * 按优先级执行任务，同优先级先进先出；任务通过取消信号响应取消，可直接传给
+ * {@link com.am.tool.support.utils.FileUtils}、{@link com.am.tool.support.utils.StreamUtils}等的读写循环；
+ * 相同键的任务在执行结束前再次提交时加入已有任务，不重复执行，所有提交方均取消后任务才会被取消；
+ * 任务总是先进入优先级队列再由线程取出，新建的线程不会绕过队列直接执行刚提交的任务；
+ * {@link ArchTaskExecutor#getScheduler()}与磁盘IO线程池共用线程及队列，直接提交到该线程池的任务以后台优先级排队
+ * Created by Alex on 2026/10/17.
+ */
+public class TaskScheduler {
+
+    /**
+     * 优先级：阻塞用户操作
+     */
+    public static final int PRIORITY_USER_BLOCKING = 0;
+    /**
+     * 优先级：可见内容
+     */
+    public static final int PRIORITY_VISIBLE = 1;
+    /**
+     * 优先级：后台
+     */
+    public static final int PRIORITY_BACKGROUND = 2;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    private static final String[] CATEGORIES =
+            {"scheduler_user_blocking", "scheduler_visible", "scheduler_background"};
+    private final Object mLock = new Object();
+    private final HashMap<Object, Job<?>> mInFlight = new HashMap<>();
+    private final ThreadPoolExecutor mExecutor;
+    @Nullable
+    private final ExecutorMetrics mMetrics;
+
+    /**
+     * 任务调度器
+     *
+     * @param name        线程名称前缀
+     * @param parallelism 并行度
+     */
+    public TaskScheduler(String name, int parallelism) {
+        this(name, parallelism, null);
+    }
+
+    /**
+     * 任务调度器
+     *
+     * @param name        线程名称前缀
+     * @param parallelism 并行度
+     * @param metrics     统计，按提交时的优先级分类记录，仅在其开启时记录
+     */
+    public TaskScheduler(final String name, int parallelism, @Nullable ExecutorMetrics metrics) {
+        this(createExecutor(name, parallelism), metrics);
+    }
+
+    /**
+     * 任务调度器
+     * 线程池的队列须为{@link PriorityBlockingQueue}，其中的其他任务须通过{@link #execute}提交
+     *
+     * @param executor 线程池
+     * @param metrics  统计，按提交时的优先级分类记录，仅在其开启时记录
+     */
+    TaskScheduler(ThreadPoolExecutor executor, @Nullable ExecutorMetrics metrics) {
+        if (!(executor.getQueue() instanceof PriorityBlockingQueue)) {
+            throw new IllegalArgumentException("The queue must be a PriorityBlockingQueue.");
+        }
+        mExecutor = executor;
+        mMetrics = metrics;
+    }
+
+    private static ThreadPoolExecutor createExecutor(final String name, int parallelism) {
+        final int threads = Math.max(1, parallelism);
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger mThreadId = new AtomicInteger(0);
+
+                    @Override
+                    public Thread newThread(@NonNull Runnable r) {
+                        final Thread t = new Thread(r);
+                        t.setName(name + mThreadId.getAndIncrement());
+                        return t;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 以指定优先级将普通任务提交到以优先级队列为队列的线程池
+     *
+     * @param executor 线程池
+     * @param priority 优先级
+     * @param command  任务
+     */
+    static void execute(ThreadPoolExecutor executor, int priority, Runnable command) {
+        enqueue(executor, new Entry(priority, command));
+    }
+
+    private static void enqueue(ThreadPoolExecutor executor, Entry entry) {
+        // ThreadPoolExecutor在线程数不足时直接将任务交给新线程执行，绕过优先级队列；
+        // 与ScheduledThreadPoolExecutor相同，先入队再按需启动线程
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException();
+        }
+        executor.getQueue().offer(entry);
+        if (executor.isShutdown() && executor.remove(entry)) {
+            throw new RejectedExecutionException();
+        }
+        executor.prestartCoreThread();
+    }
+
+    /**
+     * 提交任务
+     *
+     * @param priority 优先级
+     * @param task     任务
+     * @param callback 回调，在主线程中调用，取消后不调用
+     * @param <T>      结果类型
+     * @return 任务句柄
+     */
+    @NonNull
+    public <T> Handle<T> submit(int priority, @NonNull Task<T> task,
+                                @Nullable ArchTaskExecutor.Callback<? super T> callback) {
+        return submit(null, priority, task, callback);
+    }
+
+    /**
+     * 提交任务
+     *
+     * @param key      键，不为null时若相同键的任务尚未结束则加入该任务，任务优先级提升为两者中较高者
+     * @param priority 优先级
+     * @param task     任务
+     * @param callback 回调，在主线程中调用，取消后不调用
+     * @param <T>      结果类型
+     * @return 任务句柄
+     */
+    @NonNull
+    public <T> Handle<T> submit(@Nullable Object key, int priority, @NonNull Task<T> task,
+                                @Nullable ArchTaskExecutor.Callback<? super T> callback) {
+        synchronized (mLock) {
+            if (key != null) {
+                @SuppressWarnings("unchecked") final Job<T> running = (Job<T>) mInFlight.get(key);
+                if (running != null) {
+                    final Handle<T> handle = new Handle<>(running, callback);
+                    running.mHandles.add(handle);
+                    if (priority < running.mPriority) {
+                        reschedule(running, priority);
+                    }
+                    return handle;
+                }
+            }
+            final Job<T> job = new Job<>(key, priority, task);
+            if (mMetrics != null && mMetrics.isEnabled()) {
+                job.mMeasured = true;
+                job.mEnqueueTime = mMetrics.onEnqueue(getCategory(priority), getQueueSize());
+            }
+            final Handle<T> handle = new Handle<>(job, callback);
+            job.mHandles.add(handle);
+            if (key != null) {
+                mInFlight.put(key, job);
+            }
+            enqueue(mExecutor, job);
+            return handle;
+        }
+    }
+
+    /**
+     * 获取线程池中排队的任务数，与其他任务共用线程池时包括其他任务
+     *
+     * @return 排队中的任务数
+     */
+    public int getQueueSize() {
+        return mExecutor.getQueue().size();
+    }
+
+    private static String getCategory(int priority) {
+        return CATEGORIES[Math.max(0, Math.min(CATEGORIES.length - 1, priority))];
+    }
+
+    private void reschedule(Job<?> job, int priority) {
+        // 优先级队列不会重新排序已入队的元素，需移除后重新入队
+        if (job.mState == Job.STATE_QUEUED && mExecutor.remove(job)) {
+            job.mPriority = priority;
+            enqueue(mExecutor, job);
+        } else {
+            job.mPriority = priority;
+        }
+    }
+
+    private void unsubscribe(Handle<?> handle) {
+        final Job<?> job = handle.mJob;
+        synchronized (mLock) {
+            if (handle.mCanceled || job.mState == Job.STATE_DONE) {
+                return;
+            }
+            handle.mCanceled = true;
+            handle.mLatch.countDown();
+            job.mHandles.remove(handle);
+            if (!job.mHandles.isEmpty()) {
+                return;
+            }
+            if (job.mKey != null && mInFlight.get(job.mKey) == job) {
+                mInFlight.remove(job.mKey);
+            }
+            if (job.mState == Job.STATE_QUEUED && mExecutor.remove(job)) {
+                job.mState = Job.STATE_DONE;
+                job.mCanceled = true;
+                return;
+            }
+        }
+        // 已在执行，通过取消信号通知任务
+        job.mSignal.cancel();
+    }
+
+    private <T> void finish(Job<T> job) {
+        final List<Handle<T>> handles;
+        synchronized (mLock) {
+            if (job.mKey != null && mInFlight.get(job.mKey) == job) {
+                mInFlight.remove(job.mKey);
+            }
+            job.mState = Job.STATE_DONE;
+            handles = new ArrayList<>(job.mHandles);
+        }
+        for (Handle<T> handle : handles) {
+            handle.mLatch.countDown();
+        }
+        if (job.mCanceled) {
+            return;
+        }
+        for (final Handle<T> handle : handles) {
+            if (handle.mCallback == null) {
+                continue;
+            }
+            ArchTaskExecutor.getInstance().postToMainThread(new Runnable() {
+                @Override
+                public void run() {
+                    if (handle.mCanceled) {
+                        return;
+                    }
+                    if (job.mError == null) {
+                        handle.mCallback.onSuccess(job.mResult);
+                    } else {
+                        handle.mCallback.onFailure(job.mError);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 任务
+     *
+     * @param <T> 结果类型
+     */
+    public interface Task<T> {
+
+        /**
+         * 执行任务，在工作线程中调用
+         *
+         * @param signal 取消信号，所有提交方均取消后被取消
+         * @return 结果
+         * @throws Exception 错误，抛出{@link OperationCanceledException}视为已取消
+         */
+        T run(@NonNull CancellationSignal signal) throws Exception;
+    }
+
+    /**
+     * 任务句柄
+     * 每次提交对应一个句柄，取消句柄仅取消本次提交
+     *
+     * @param <T> 结果类型
+     */
+    public final class Handle<T> implements Future<T> {
+        private final Job<T> mJob;
+        @Nullable
+        private final ArchTaskExecutor.Callback<? super T> mCallback;
+        // 任务结束或本句柄取消时释放
+        private final CountDownLatch mLatch = new CountDownLatch(1);
+        private volatile boolean mCanceled;
+
+        private Handle(Job<T> job, @Nullable ArchTaskExecutor.Callback<? super T> callback) {
+            mJob = job;
+            mCallback = callback;
+        }
+
+        /**
+         * 修改优先级，仅能提升，任务已开始执行时无效
+         *
+         * @param priority 优先级
+         */
+        public void promote(int priority) {
+            synchronized (mLock) {
+                if (!mCanceled && priority < mJob.mPriority) {
+                    reschedule(mJob, priority);
+                }
+            }
+        }
+
+        /**
+         * 取消
+         *
+         * @param mayInterruptIfRunning 无效，执行中的任务通过取消信号取消
+         * @return 本次取消生效时返回true
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (mCanceled || isDone()) {
+                return false;
+            }
+            unsubscribe(this);
+            return mCanceled;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return mCanceled || (mJob.mState == Job.STATE_DONE && mJob.mCanceled);
+        }
+
+        @Override
+        public boolean isDone() {
+            return mCanceled || mJob.mState == Job.STATE_DONE;
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            if (mCanceled) {
+                throw new CancellationException();
+            }
+            mLatch.await();
+            return getResult();
+        }
+
+        @Override
+        public T get(long timeout, @NonNull TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            if (mCanceled) {
+                throw new CancellationException();
+            }
+            if (!mLatch.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return getResult();
+        }
+
+        private T getResult() throws ExecutionException {
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+            if (mJob.mError != null) {
+                throw new ExecutionException(mJob.mError);
+            }
+            return mJob.mResult;
+        }
+    }
+
+    /**
+     * 优先级队列中的任务，同优先级按提交顺序执行
+     */
+    private static class Entry implements Runnable, Comparable<Entry> {
+        private static final AtomicLong SEQUENCE = new AtomicLong();
+        final long mSequence = SEQUENCE.getAndIncrement();
+        @Nullable
+        final Runnable mCommand;
+        volatile int mPriority;
+
+        Entry(int priority, @Nullable Runnable command) {
+            mPriority = priority;
+            mCommand = command;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            if (mPriority != o.mPriority) {
+                return mPriority < o.mPriority ? -1 : 1;
+            }
+            return Long.compare(mSequence, o.mSequence);
+        }
+
+        @Override
+        public void run() {
+            if (mCommand != null) {
+                mCommand.run();
+            }
+        }
+    }
+
+    private final class Job<T> extends Entry {
+        static final int STATE_QUEUED = 0;
+        static final int STATE_RUNNING = 1;
+        static final int STATE_DONE = 2;
+        @Nullable
+        final Object mKey;
+        final Task<T> mTask;
+        final CancellationSignal mSignal = new CancellationSignal();
+        final List<Handle<T>> mHandles = new ArrayList<>();
+        final String mCategory;
+        volatile int mState = STATE_QUEUED;
+        boolean mMeasured;
+        long mEnqueueTime;
+        volatile boolean mCanceled;
+        T mResult;
+        Throwable mError;
+
+        Job(@Nullable Object key, int priority, Task<T> task) {
+            super(priority, null);
+            mKey = key;
+            mCategory = getCategory(priority);
+            mTask = task;
+        }
+
+        @Override
+        public void run() {
+            synchronized (mLock) {
+                if (mState != STATE_QUEUED) {
+                    return;
+                }
+                mState = STATE_RUNNING;
+            }
+            final long start = mMeasured ? mMetrics.onStart(mCategory, mEnqueueTime) : 0;
+            try {
+                mSignal.throwIfCanceled();
+                mResult = mTask.run(mSignal);
+            } catch (OperationCanceledException e) {
+                mCanceled = true;
+            } catch (Throwable t) {
+                mError = t;
+            }
+            if (mMeasured) {
+                mMetrics.onFinish(mCategory, start);
+            }
+            if (mSignal.isCanceled()) {
+                mCanceled = true;
+            }
+            finish(this);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2026 AlexMofer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.am.tool.support.security;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.am.tool.support.utils.ByteUtils;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 信息摘要结果
+ * 一次读取同时计算的一种或多种信息摘要及数据长度
+ * Created by Alex on 2026/10/17.
+ */
+public class MessageDigestResult {
+
+    private final long mLength;
+    private final Map<String, byte[]> mDigests = new LinkedHashMap<>();
+
+    /**
+     * 信息摘要结果
+     *
+     * @param length  数据长度
+     * @param digests 已完成计算的信息摘要，以算法为键
+     */
+    public MessageDigestResult(long length, Map<String, byte[]> digests) {
+        mLength = length;
+        for (Map.Entry<String, byte[]> entry : digests.entrySet()) {
+            mDigests.put(entry.getKey(), entry.getValue().clone());
+        }
+    }
+
+    /**
+     * 信息摘要结果
+     * 构造时完成各信息摘要的计算（调用{@link MessageDigest#digest()}，之后各实例被重置）
+     *
+     * @param length  数据长度
+     * @param digests 信息摘要，以{@link MessageDigest#getAlgorithm()}为键
+     */
+    MessageDigestResult(long length, MessageDigest... digests) {
+        mLength = length;
+        for (MessageDigest digest : digests) {
+            mDigests.put(digest.getAlgorithm(), digest.digest());
+        }
+    }
+
+    /**
+     * 获取数据长度
+     *
+     * @return 数据长度
+     */
+    public long getLength() {
+        return mLength;
+    }
+
+    /**
+     * 获取算法
+     *
+     * @return 算法
+     */
+    public Set<String> getAlgorithms() {
+        return Collections.unmodifiableSet(mDigests.keySet());
+    }
+
+    /**
+     * 获取信息摘要
+     *
+     * @param algorithm 算法
+     * @return 信息摘要，未计算该算法时返回null
+     */
+    @Nullable
+    public byte[] getDigest(String algorithm) {
+        final byte[] digest = mDigests.get(algorithm);
+        return digest == null ? null : digest.clone();
+    }
+
+    /**
+     * 获取信息摘要
+     *
+     * @param algorithm 算法
+     * @return 16进制信息摘要（完整长度），未计算该算法时返回null
+     */
+    @Nullable
+    public String getDigestString(String algorithm) {
+        final byte[] digest = mDigests.get(algorithm);
+        return digest == null ? null : ByteUtils.toHexString(digest);
+    }
+
+    /**
+     * 判断信息摘要是否一致
+     *
+     * @param other 其他结果
+     * @return 长度及所有共同算法的信息摘要均一致时返回true
+     */
+    public boolean matches(MessageDigestResult other) {
+        if (mLength != other.mLength) {
+            return false;
+        }
+        for (Map.Entry<String, byte[]> entry : mDigests.entrySet()) {
+            final byte[] digest = other.mDigests.get(entry.getKey());
+            if (digest != null && !MessageDigest.isEqual(entry.getValue(), digest)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("MessageDigestResult{length=")
+                .append(mLength);
+        for (String algorithm : mDigests.keySet()) {
+            builder.append(", ").append(algorithm).append('=')
+                    .append(getDigestString(algorithm));
+        }
+        return builder.append('}').toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final MessageDigestResult that = (MessageDigestResult) o;
+        if (mLength != that.mLength || !mDigests.keySet().equals(that.mDigests.keySet()))
+            return false;
+        for (Map.Entry<String, byte[]> entry : mDigests.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), that.mDigests.get(entry.getKey())))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.valueOf(mLength).hashCode();
+        for (Map.Entry<String, byte[]> entry : mDigests.entrySet()) {
+            result = 31 * result + entry.getKey().hashCode();
+            result = 31 * result + Arrays.hashCode(entry.getValue());
+        }
+        return result;
+    }
+}
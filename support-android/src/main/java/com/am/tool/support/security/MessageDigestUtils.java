@@ -20,14 +20,34 @@ import android.content.Context;
 import android.net.Uri;
 import android.os.Build;
 import android.os.ParcelFileDescriptor;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
 
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import com.am.tool.support.utils.BufferPool;
+import com.am.tool.support.utils.ByteUtils;
+
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 
 /**
  * 信息摘要工具类
@@ -36,47 +56,136 @@ import java.security.NoSuchAlgorithmException;
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class MessageDigestUtils {
 
+    private static final ThreadLocal<InstanceCache> DIGESTS = new ThreadLocal<InstanceCache>() {
+        @Override
+        protected InstanceCache initialValue() {
+            return new InstanceCache();
+        }
+    };
+    private static final AtomicInteger GENERATION = new AtomicInteger();
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final long MAP_THRESHOLD = 16 * 1024 * 1024;
+    private static final long MAP_WINDOW_SIZE = 64 * 1024 * 1024;
+    // 映射在缓冲区被回收前不会解除，32位进程的地址空间可能耗尽
+    private static final boolean MAP_SUPPORTED = System.getProperty("os.arch", "").contains("64");
+    private static volatile boolean sCacheEnabled = true;
+
     private MessageDigestUtils() {
         //no instance
     }
 
     /**
-     * 获取信息摘要
+     * 设置是否缓存信息摘要实例
+     * 启用时每个线程按算法缓存实例，重置后复用，避免每次查找提供者并创建实例；默认启用。
+     * 关闭时立即清除当前线程的缓存，其他线程的缓存在其下次获取实例时清除
+     *
+     * @param enabled 是否缓存
+     */
+    public static void setInstanceCacheEnabled(boolean enabled) {
+        sCacheEnabled = enabled;
+        if (!enabled) {
+            GENERATION.incrementAndGet();
+            DIGESTS.remove();
+        }
+    }
+
+    private static HashMap<String, MessageDigest> getInstanceCache() {
+        final InstanceCache cache = DIGESTS.get();
+        final int generation = GENERATION.get();
+        if (cache.mGeneration != generation) {
+            cache.mDigests.clear();
+            cache.mGeneration = generation;
+        }
+        return cache.mDigests;
+    }
+
+    /**
+     * 获取信息摘要实例
+     * 优先使用当前线程缓存的实例，使用完毕后应调用{@link #release(MessageDigest)}
      *
-     * @param input     数据源
      * @param algorithm 算法
-     * @return 信息摘要
+     * @return 信息摘要实例
+     * @throws NoSuchAlgorithmException 不支持的算法
      */
-    public static byte[] getMessageDigest(byte[] input, String algorithm) {
-        if (input == null)
+    public static MessageDigest obtain(String algorithm) throws NoSuchAlgorithmException {
+        // 关闭缓存后仍检查，以清除关闭前缓存的实例
+        final HashMap<String, MessageDigest> cache = getInstanceCache();
+        if (sCacheEnabled) {
+            // 取出而非引用，嵌套使用同一算法时各自获得独立实例
+            final MessageDigest cached = cache.remove(algorithm);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return MessageDigest.getInstance(algorithm);
+    }
+
+    /**
+     * 归还信息摘要实例
+     * 实例被重置后缓存于当前线程，归还后不可再使用
+     *
+     * @param digest 信息摘要实例
+     */
+    public static void release(@Nullable MessageDigest digest) {
+        if (digest == null || !sCacheEnabled) {
+            return;
+        }
+        digest.reset();
+        getInstanceCache().put(digest.getAlgorithm(), digest);
+    }
+
+    /**
+     * 获取信息摘要处理器
+     * 适用于频繁计算摘要的场景，处理器可重复使用，使用完毕后关闭
+     *
+     * @param algorithm 算法
+     * @return 信息摘要处理器
+     * @throws NoSuchAlgorithmException 不支持的算法
+     */
+    public static Digester obtainDigester(String algorithm) throws NoSuchAlgorithmException {
+        return new Digester(obtain(algorithm));
+    }
+
+    /**
+     * 获取消息认证码
+     *
+     * @param input     数据源
+     * @param key       密钥
+     * @param algorithm 算法，如：HmacSHA256
+     * @return 消息认证码，算法不支持或密钥无效时返回null
+     */
+    public static byte[] getHmac(byte[] input, byte[] key, String algorithm) {
+        if (input == null || key == null)
             return null;
         try {
-            return MessageDigest.getInstance(algorithm).digest(input);
-        } catch (NoSuchAlgorithmException e) {
+            // 不缓存实例：reset不会清除密钥，复用可能使用上一调用方的密钥
+            final Mac mac = Mac.getInstance(algorithm);
+            mac.init(new SecretKeySpec(key, algorithm));
+            return mac.doFinal(input);
+        } catch (NoSuchAlgorithmException | InvalidKeyException | IllegalArgumentException e) {
             return null;
         }
     }
 
     /**
-     * 转换为16进制
+     * 获取信息摘要
      *
-     * @param bytes     数据
-     * @param minLength 16进制字符串长度
-     * @return 16进制字符串
+     * @param input     数据源
+     * @param algorithm 算法
+     * @return 信息摘要
      */
-    private static String toHexString(byte[] bytes, int minLength) {
-        if (bytes == null)
+    public static byte[] getMessageDigest(byte[] input, String algorithm) {
+        if (input == null)
             return null;
-        final String str = new BigInteger(1, bytes).toString(16);
-        final StringBuilder builder = new StringBuilder();
-        if (str.length() < minLength) {
-            final int number = minLength - str.length();
-            for (int i = 0; i < number; i++) {
-                builder.append("0");
-            }
+        MessageDigest md = null;
+        try {
+            md = obtain(algorithm);
+            return md.digest(input);
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        } finally {
+            release(md);
         }
-        builder.append(str);
-        return builder.toString();
     }
 
     /**
@@ -88,7 +197,7 @@ public class MessageDigestUtils {
      * @return 信息摘要
      */
     public static String getMessageDigest(byte[] input, String algorithm, int minLength) {
-        return toHexString(getMessageDigest(input, algorithm), minLength);
+        return ByteUtils.toHexString(getMessageDigest(input, algorithm), minLength);
     }
 
     /**
@@ -101,12 +210,15 @@ public class MessageDigestUtils {
     public static byte[] getMessageDigest(ByteBuffer input, String algorithm) {
         if (input == null)
             return null;
+        MessageDigest md = null;
         try {
-            final MessageDigest md = MessageDigest.getInstance(algorithm);
+            md = obtain(algorithm);
             md.update(input);
             return md.digest();
         } catch (NoSuchAlgorithmException e) {
             return null;
+        } finally {
+            release(md);
         }
     }
 
@@ -119,36 +231,49 @@ public class MessageDigestUtils {
      * @return 信息摘要
      */
     public static String getMessageDigest(ByteBuffer input, String algorithm, int minLength) {
-        return toHexString(getMessageDigest(input, algorithm), minLength);
+        return ByteUtils.toHexString(getMessageDigest(input, algorithm), minLength);
     }
 
     /**
      * 获取信息摘要
+     * 按顺序处理多段数据，如{@link com.am.tool.support.utils.FileUtils#mapWindowsOrThrow}
+     * 返回的文件映射，不改变各段数据的位置
      *
-     * @param input     数据源
+     * @param inputs    数据源
      * @param algorithm 算法
      * @return 信息摘要
      */
-    public static byte[] getMessageDigest(InputStream input, String algorithm) {
-        if (input == null)
+    public static byte[] getMessageDigest(List<? extends ByteBuffer> inputs, String algorithm) {
+        if (inputs == null)
             return null;
+        MessageDigest md = null;
         try {
-            final MessageDigest md = MessageDigest.getInstance(algorithm);
-            int len;
-            final byte[] buffer = new byte[1024];
-            try {
-                while ((len = input.read(buffer, 0, buffer.length)) != -1) {
-                    md.update(buffer, 0, len);
-                }
-            } catch (Exception e) {
-                return null;
+            md = obtain(algorithm);
+            for (ByteBuffer input : inputs) {
+                md.update(input.duplicate());
             }
             return md.digest();
         } catch (NoSuchAlgorithmException e) {
             return null;
+        } finally {
+            release(md);
         }
     }
 
+    /**
+     * 获取信息摘要
+     *
+     * @param input     数据源
+     * @param algorithm 算法
+     * @return 信息摘要
+     */
+    public static byte[] getMessageDigest(InputStream input, String algorithm) {
+        if (input == null)
+            return null;
+        final MessageDigestResult result = getMessageDigests(input, algorithm);
+        return result == null ? null : result.getDigest(algorithm);
+    }
+
     /**
      * 获取信息摘要
      *
@@ -158,7 +283,7 @@ public class MessageDigestUtils {
      * @return 信息摘要
      */
     public static String getMessageDigest(InputStream input, String algorithm, int minLength) {
-        return toHexString(getMessageDigest(input, algorithm), minLength);
+        return ByteUtils.toHexString(getMessageDigest(input, algorithm), minLength);
     }
 
     /**
@@ -718,42 +843,247 @@ public class MessageDigestUtils {
         return getSHA512String(input.getBytes());
     }
 
+    private static MessageDigest[] obtain(String... algorithms) throws NoSuchAlgorithmException {
+        if (algorithms.length == 0) {
+            throw new NoSuchAlgorithmException("No algorithm.");
+        }
+        final MessageDigest[] digests = new MessageDigest[algorithms.length];
+        try {
+            for (int i = 0; i < algorithms.length; i++) {
+                digests[i] = obtain(algorithms[i]);
+            }
+        } catch (NoSuchAlgorithmException e) {
+            release(digests);
+            throw e;
+        }
+        return digests;
+    }
+
+    private static void release(MessageDigest[] digests) {
+        for (MessageDigest digest : digests) {
+            release(digest);
+        }
+    }
+
     /**
-     * 获取文件 MD5
+     * 获取多种信息摘要
+     * 一次读取，每段数据同时输入所有算法
      *
-     * @param file      文件
-     * @param minLength 最少长度，不足在前面补0
-     * @return MD5
+     * @param input      数据源
+     * @param algorithms 算法，如：MD5、SHA-256
+     * @return 信息摘要结果，读取失败或算法不支持时返回null
      */
-    public static String getMD5(File file, int minLength) {
-        if (file == null)
+    @Nullable
+    public static MessageDigestResult getMessageDigests(InputStream input, String... algorithms) {
+        if (input == null)
             return null;
-        try (final FileInputStream input = new FileInputStream(file)) {
-            return getMD5String(input, minLength);
+        if (input instanceof FileInputStream && isRegularFile((FileInputStream) input)) {
+            return getMessageDigests(((FileInputStream) input).getChannel(), algorithms);
+        }
+        MessageDigest[] digests = null;
+        final byte[] buffer = BufferPool.obtain(-1);
+        try {
+            digests = obtain(algorithms);
+            long length = 0;
+            int count;
+            while ((count = input.read(buffer)) != -1) {
+                for (MessageDigest digest : digests) {
+                    digest.update(buffer, 0, count);
+                }
+                length += count;
+            }
+            return new MessageDigestResult(length, digests);
         } catch (Exception e) {
             return null;
+        } finally {
+            BufferPool.recycle(buffer);
+            if (digests != null) {
+                release(digests);
+            }
         }
     }
 
     /**
-     * 获取文件 MD5
+     * 获取信息摘要
+     * 从当前位置读取到末尾
      *
-     * @param file 文件
-     * @return MD5
+     * @param input     数据源
+     * @param algorithm 算法
+     * @return 信息摘要，读取失败或算法不支持时返回null
      */
-    public static String getMD5(File file) {
-        return getMD5(file, 0);
+    @Nullable
+    public static byte[] getMessageDigest(FileChannel input, String algorithm) {
+        final MessageDigestResult result = getMessageDigests(input, algorithm);
+        return result == null ? null : result.getDigest(algorithm);
     }
 
     /**
-     * 获取文件 MD5
+     * 获取多种信息摘要
+     * 从当前位置读取到末尾；64位进程中较大的文件分段映射后直接输入，否则（或映射失败时）
+     * 通过{@link BufferPool#obtainDirect()}获取的直接缓冲区读取，每次读取1MB，减少系统调用次数
      *
-     * @param context   Context
-     * @param uri       Uri
-     * @param minLength 最少长度，如：32，长度不够时最前面补0
-     * @return MD5
+     * @param input      数据源
+     * @param algorithms 算法，如：MD5、SHA-256
+     * @return 信息摘要结果，读取失败或算法不支持时返回null
      */
-    public static String getMD5(Context context, Uri uri, int minLength) {
+    @Nullable
+    public static MessageDigestResult getMessageDigests(FileChannel input, String... algorithms) {
+        if (input == null)
+            return null;
+        MessageDigest[] digests = null;
+        try {
+            digests = obtain(algorithms);
+            long length = 0;
+            if (MAP_SUPPORTED) {
+                length = map(input, digests);
+            }
+            length += read(input, digests);
+            return new MessageDigestResult(length, digests);
+        } catch (Exception e) {
+            return null;
+        } finally {
+            if (digests != null) {
+                release(digests);
+            }
+        }
+    }
+
+    private static boolean isRegularFile(FileInputStream input) {
+        // 管道、套接字等（如内容提供者以流方式提供的数据）不支持定位及映射
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            try {
+                return OsConstants.S_ISREG(Os.fstat(input.getFD()).st_mode);
+            } catch (ErrnoException | IOException e) {
+                return false;
+            }
+        }
+        try {
+            input.getChannel().position();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 分段映射输入，任意一段映射失败时停止，由调用方从当前位置继续读取
+     *
+     * @return 已输入的字节数
+     */
+    private static long map(FileChannel input, MessageDigest[] digests) {
+        final long start;
+        final long size;
+        try {
+            start = input.position();
+            size = input.size();
+        } catch (IOException e) {
+            return 0;
+        }
+        if (size - start < MAP_THRESHOLD) {
+            return 0;
+        }
+        long position = start;
+        while (position < size) {
+            final MappedByteBuffer window;
+            try {
+                window = input.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_WINDOW_SIZE, size - position));
+            } catch (IOException | OutOfMemoryError e) {
+                // 映射失败，改为读取
+                break;
+            }
+            for (MessageDigest digest : digests) {
+                digest.update(window.duplicate());
+            }
+            position += window.capacity();
+        }
+        try {
+            input.position(position);
+        } catch (IOException e) {
+            return 0;
+        }
+        return position - start;
+    }
+
+    private static long read(FileChannel input, MessageDigest[] digests) throws IOException {
+        final ByteBuffer buffer = BufferPool.obtainDirect();
+        try {
+            long length = 0;
+            while (true) {
+                buffer.clear();
+                final int count = input.read(buffer);
+                if (count == -1) {
+                    return length;
+                }
+                buffer.flip();
+                for (MessageDigest digest : digests) {
+                    buffer.position(0);
+                    digest.update(buffer);
+                }
+                length += count;
+            }
+        } finally {
+            BufferPool.recycle(buffer);
+        }
+    }
+
+    /**
+     * 获取多种信息摘要
+     * 不改变数据的位置
+     *
+     * @param input      数据源
+     * @param algorithms 算法，如：MD5、SHA-256
+     * @return 信息摘要结果，算法不支持时返回null
+     */
+    @Nullable
+    public static MessageDigestResult getMessageDigests(ByteBuffer input, String... algorithms) {
+        if (input == null)
+            return null;
+        MessageDigest[] digests = null;
+        try {
+            digests = obtain(algorithms);
+            for (MessageDigest digest : digests) {
+                digest.update(input.duplicate());
+            }
+            return new MessageDigestResult(input.remaining(), digests);
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        } finally {
+            if (digests != null) {
+                release(digests);
+            }
+        }
+    }
+
+    /**
+     * 获取文件的多种信息摘要
+     *
+     * @param file       文件
+     * @param algorithms 算法，如：MD5、SHA-256
+     * @return 信息摘要结果，读取失败或算法不支持时返回null
+     */
+    @Nullable
+    public static MessageDigestResult getMessageDigests(File file, String... algorithms) {
+        if (file == null)
+            return null;
+        try (final FileInputStream input = new FileInputStream(file)) {
+            return getMessageDigests(input, algorithms);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取文件的多种信息摘要
+     *
+     * @param context    Context
+     * @param uri        Uri
+     * @param algorithms 算法，如：MD5、SHA-256
+     * @return 信息摘要结果，读取失败或算法不支持时返回null
+     */
+    @Nullable
+    public static MessageDigestResult getMessageDigests(Context context, Uri uri,
+                                                        String... algorithms) {
         final ParcelFileDescriptor descriptor;
         try {
             descriptor = context.getContentResolver().openFileDescriptor(uri, "r");
@@ -765,12 +1095,71 @@ public class MessageDigestUtils {
         }
         try (final ParcelFileDescriptor.AutoCloseInputStream input =
                      new ParcelFileDescriptor.AutoCloseInputStream(descriptor)) {
-            return getMD5String(input, minLength);
+            if (descriptor.getStatSize() >= 0) {
+                return getMessageDigests(input.getChannel(), algorithms);
+            }
+            return getMessageDigests((InputStream) input, algorithms);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取文件的分块信息摘要
+     * 各块在{@link TreeDigester#getInstance()}的线程池中并行计算，结果与普通信息摘要不同
+     *
+     * @param file      文件
+     * @param algorithm 算法
+     * @param chunkSize 分块大小，如：{@link TreeDigester#DEFAULT_CHUNK_SIZE}
+     * @return 分块信息摘要结果，读取失败或算法不支持时返回null
+     */
+    @Nullable
+    @RequiresApi(Build.VERSION_CODES.LOLLIPOP)
+    public static TreeDigestResult getTreeDigest(File file, String algorithm, int chunkSize) {
+        if (file == null)
+            return null;
+        try {
+            return TreeDigester.getInstance().digest(file, algorithm, chunkSize, null);
         } catch (Exception e) {
             return null;
         }
     }
 
+    /**
+     * 获取文件 MD5
+     *
+     * @param file      文件
+     * @param minLength 最少长度，不足在前面补0
+     * @return MD5
+     */
+    public static String getMD5(File file, int minLength) {
+        final MessageDigestResult result = getMessageDigests(file, "MD5");
+        return result == null ? null : ByteUtils.toHexString(result.getDigest("MD5"), minLength);
+    }
+
+    /**
+     * 获取文件 MD5
+     *
+     * @param file 文件
+     * @return MD5
+     */
+    public static String getMD5(File file) {
+        return getMD5(file, 0);
+    }
+
+    /**
+     * 获取文件 MD5
+     *
+     * @param context   Context
+     * @param uri       Uri
+     * @param minLength 最少长度，如：32，长度不够时最前面补0
+     * @return MD5
+     */
+    public static String getMD5(Context context, Uri uri, int minLength) {
+        final MessageDigestResult result = getMessageDigests(context, uri, "MD5");
+        return result == null ? null : ByteUtils.toHexString(result.getDigest("MD5"), minLength);
+    }
+
     /**
      * 获取文件 MD5
      *
@@ -781,4 +1170,109 @@ public class MessageDigestUtils {
     public static String getMD5(Context context, Uri uri) {
         return getMD5(context, uri, 0);
     }
-}
\ No newline at end of file
+
+    /**
+     * 信息摘要处理器
+     * 每次{@link #digest()}后自动重置，可继续用于下一次计算
+     */
+    public static final class Digester implements Closeable {
+        @Nullable
+        private MessageDigest mDigest;
+
+        private Digester(MessageDigest digest) {
+            mDigest = digest;
+        }
+
+        private MessageDigest get() {
+            if (mDigest == null) {
+                throw new IllegalStateException("Digester is closed.");
+            }
+            return mDigest;
+        }
+
+        /**
+         * 输入数据
+         *
+         * @param input 数据
+         * @return 处理器
+         */
+        public Digester update(byte[] input) {
+            get().update(input);
+            return this;
+        }
+
+        /**
+         * 输入数据
+         *
+         * @param input  数据
+         * @param offset 起始位置
+         * @param length 长度
+         * @return 处理器
+         */
+        public Digester update(byte[] input, int offset, int length) {
+            get().update(input, offset, length);
+            return this;
+        }
+
+        /**
+         * 输入数据
+         *
+         * @param input 数据
+         * @return 处理器
+         */
+        public Digester update(ByteBuffer input) {
+            get().update(input);
+            return this;
+        }
+
+        /**
+         * 输入字符串（UTF-8）
+         *
+         * @param input 字符串
+         * @return 处理器
+         */
+        public Digester update(String input) {
+            get().update(input.getBytes(UTF_8));
+            return this;
+        }
+
+        /**
+         * 完成计算并重置
+         *
+         * @return 信息摘要
+         */
+        public byte[] digest() {
+            return get().digest();
+        }
+
+        /**
+         * 完成计算并重置
+         *
+         * @return 16进制信息摘要（完整长度）
+         */
+        public String digestString() {
+            return ByteUtils.toHexString(digest());
+        }
+
+        /**
+         * 重置
+         */
+        public void reset() {
+            get().reset();
+        }
+
+        /**
+         * 关闭，归还信息摘要实例
+         */
+        @Override
+        public void close() {
+            release(mDigest);
+            mDigest = null;
+        }
+    }
+
+    private static class InstanceCache {
+        final HashMap<String, MessageDigest> mDigests = new HashMap<>();
+        int mGeneration = GENERATION.get();
+    }
+}
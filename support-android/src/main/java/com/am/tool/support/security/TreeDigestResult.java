@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2026 AlexMofer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.am.tool.support.security;
+
+import androidx.annotation.NonNull;
+
+import com.am.tool.support.utils.ByteUtils;
+
+/**
+ * 分块信息摘要结果
+ * 文件按固定大小分块，各块分别计算信息摘要，按顺序拼接各块的信息摘要后再计算一次得到根摘要
+ * Created by Alex on 2026/10/17.
+ */
+public class TreeDigestResult {
+
+    private final String mAlgorithm;
+    private final long mLength;
+    private final int mChunkSize;
+    private final byte[] mRoot;
+    private final byte[][] mChunks;
+
+    TreeDigestResult(String algorithm, long length, int chunkSize, byte[] root, byte[][] chunks) {
+        mAlgorithm = algorithm;
+        mLength = length;
+        mChunkSize = chunkSize;
+        mRoot = root;
+        mChunks = chunks;
+    }
+
+    /**
+     * 获取算法
+     *
+     * @return 算法
+     */
+    public String getAlgorithm() {
+        return mAlgorithm;
+    }
+
+    /**
+     * 获取数据长度
+     *
+     * @return 数据长度
+     */
+    public long getLength() {
+        return mLength;
+    }
+
+    /**
+     * 获取分块大小
+     *
+     * @return 分块大小
+     */
+    public int getChunkSize() {
+        return mChunkSize;
+    }
+
+    /**
+     * 获取根摘要
+     *
+     * @return 根摘要
+     */
+    public byte[] getRoot() {
+        return mRoot.clone();
+    }
+
+    /**
+     * 获取根摘要
+     *
+     * @return 16进制根摘要（完整长度）
+     */
+    public String getRootString() {
+        return ByteUtils.toHexString(mRoot);
+    }
+
+    /**
+     * 获取分块数
+     *
+     * @return 分块数
+     */
+    public int getChunkCount() {
+        return mChunks.length;
+    }
+
+    /**
+     * 获取分块起始位置
+     *
+     * @param index 分块序号
+     * @return 起始位置
+     */
+    public long getChunkOffset(int index) {
+        return (long) index * mChunkSize;
+    }
+
+    /**
+     * 获取分块长度
+     *
+     * @param index 分块序号
+     * @return 分块长度，最后一块可能小于分块大小
+     */
+    public int getChunkLength(int index) {
+        return (int) Math.min(mChunkSize, mLength - getChunkOffset(index));
+    }
+
+    /**
+     * 获取分块信息摘要
+     *
+     * @param index 分块序号
+     * @return 信息摘要
+     */
+    public byte[] getChunkDigest(int index) {
+        return mChunks[index].clone();
+    }
+
+    /**
+     * 获取分块信息摘要
+     *
+     * @param index 分块序号
+     * @return 16进制信息摘要（完整长度）
+     */
+    public String getChunkDigestString(int index) {
+        return ByteUtils.toHexString(mChunks[index]);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "TreeDigestResult{" +
+                "algorithm='" + mAlgorithm + '\'' +
+                ", length=" + mLength +
+                ", chunkSize=" + mChunkSize +
+                ", chunkCount=" + mChunks.length +
+                ", root=" + getRootString() +
+                '}';
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2026 AlexMofer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.am.tool.support.security;
+
+import android.os.Build;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import com.am.tool.support.other.ArchTaskExecutor;
+import com.am.tool.support.utils.BufferPool;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 分块信息摘要计算器
+ * 文件按固定大小分块，在Fork/Join线程池中并行计算各块的信息摘要，再按顺序拼接计算根摘要；
+ * 各块使用定位读取，共享同一个文件通道
+ * Created by Alex on 2026/10/17.
+ */
+@RequiresApi(Build.VERSION_CODES.LOLLIPOP)
+public class TreeDigester {
+
+    /**
+     * 默认分块大小
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static volatile TreeDigester sInstance;
+    private final ForkJoinPool mPool;
+
+    /**
+     * 分块信息摘要计算器
+     * 使用{@link ArchTaskExecutor#getForkJoinPool()}
+     */
+    public TreeDigester() {
+        this(ArchTaskExecutor.getInstance().getForkJoinPool());
+    }
+
+    /**
+     * 分块信息摘要计算器
+     * 使用独立的线程池
+     *
+     * @param parallelism 并行度
+     */
+    public TreeDigester(int parallelism) {
+        this(new ForkJoinPool(Math.max(1, parallelism)));
+    }
+
+    /**
+     * 分块信息摘要计算器
+     *
+     * @param pool 线程池
+     */
+    public TreeDigester(ForkJoinPool pool) {
+        mPool = pool;
+    }
+
+    /**
+     * 获取共享实例
+     *
+     * @return 共享实例
+     */
+    @NonNull
+    public static TreeDigester getInstance() {
+        if (sInstance != null) {
+            return sInstance;
+        }
+        synchronized (TreeDigester.class) {
+            if (sInstance == null) {
+                sInstance = new TreeDigester();
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 计算文件的分块信息摘要
+     *
+     * @param file      文件
+     * @param algorithm 算法，各块及根摘要使用同一算法
+     * @param chunkSize 分块大小
+     * @param signal    取消信号，取消时抛出{@link OperationCanceledException}
+     * @return 分块信息摘要结果
+     * @throws IOException              读取失败
+     * @throws NoSuchAlgorithmException 不支持的算法
+     */
+    public TreeDigestResult digest(File file, String algorithm, int chunkSize,
+                                   @Nullable CancellationSignal signal)
+            throws IOException, NoSuchAlgorithmException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Illegal chunk size: " + chunkSize);
+        }
+        // 提前检查算法，避免在工作线程中失败
+        MessageDigestUtils.release(MessageDigestUtils.obtain(algorithm));
+        try (final FileInputStream input = new FileInputStream(file)) {
+            final FileChannel channel = input.getChannel();
+            final long length = channel.size();
+            final long count = (length + chunkSize - 1) / chunkSize;
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many chunks: " + count);
+            }
+            final Session session = new Session(channel, algorithm, length, chunkSize,
+                    new byte[(int) count][], signal);
+            mPool.invoke(new ChunkTask(session, 0, session.mChunks.length));
+            final IOException error = session.mError.get();
+            if (error != null) {
+                throw error;
+            }
+            if (signal != null) {
+                signal.throwIfCanceled();
+            }
+            final byte[][] chunks = session.mChunks;
+            final MessageDigest root = MessageDigestUtils.obtain(algorithm);
+            try {
+                for (byte[] chunk : chunks) {
+                    root.update(chunk);
+                }
+                return new TreeDigestResult(algorithm, length, chunkSize, root.digest(), chunks);
+            } finally {
+                MessageDigestUtils.release(root);
+            }
+        }
+    }
+
+    private static byte[] digestChunk(FileChannel channel, String algorithm,
+                                      long position, int length) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigestUtils.obtain(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        final byte[] array = BufferPool.obtain(length);
+        final ByteBuffer buffer = ByteBuffer.wrap(array);
+        try {
+            int read = 0;
+            while (read < length) {
+                buffer.clear();
+                buffer.limit(Math.min(array.length, length - read));
+                final int count = channel.read(buffer, position + read);
+                if (count < 0) {
+                    throw new EOFException();
+                }
+                digest.update(array, 0, count);
+                read += count;
+            }
+            return digest.digest();
+        } finally {
+            BufferPool.recycle(array);
+            MessageDigestUtils.release(digest);
+        }
+    }
+
+    private static class Session {
+        final FileChannel mChannel;
+        final String mAlgorithm;
+        final long mLength;
+        final int mChunkSize;
+        final byte[][] mChunks;
+        @Nullable
+        final CancellationSignal mSignal;
+        final AtomicReference<IOException> mError = new AtomicReference<>();
+
+        Session(FileChannel channel, String algorithm, long length, int chunkSize,
+                byte[][] chunks, @Nullable CancellationSignal signal) {
+            mChannel = channel;
+            mAlgorithm = algorithm;
+            mLength = length;
+            mChunkSize = chunkSize;
+            mChunks = chunks;
+            mSignal = signal;
+        }
+
+        boolean isStopped() {
+            return mError.get() != null || (mSignal != null && mSignal.isCanceled());
+        }
+    }
+
+    private static class ChunkTask extends RecursiveAction {
+
+        private final Session mSession;
+        private final int mStart;
+        private final int mEnd;
+
+        ChunkTask(Session session, int start, int end) {
+            mSession = session;
+            mStart = start;
+            mEnd = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (mSession.isStopped() || mEnd == mStart) {
+                return;
+            }
+            if (mEnd - mStart > 1) {
+                final int middle = (mStart + mEnd) >>> 1;
+                invokeAll(new ChunkTask(mSession, mStart, middle),
+                        new ChunkTask(mSession, middle, mEnd));
+                return;
+            }
+            final long position = (long) mStart * mSession.mChunkSize;
+            try {
+                mSession.mChunks[mStart] = digestChunk(mSession.mChannel, mSession.mAlgorithm,
+                        position, (int) Math.min(mSession.mChunkSize, mSession.mLength - position));
+            } catch (IOException e) {
+                mSession.mError.compareAndSet(null, e);
+            }
+        }
+    }
+}
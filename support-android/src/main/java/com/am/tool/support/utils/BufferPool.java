@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2026 AlexMofer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.am.tool.support.utils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * 字节缓冲池
+ * 按大小分级（64KB、256KB、1MB）缓存字节数组，避免每次读写都重新分配缓冲区；
+ * 另缓存少量1MB的直接缓冲区，供通道读取使用
+ * Created by Alex on 2026/10/17.
+ */
+public class BufferPool {
+
+    public static final int SIZE_SMALL = 64 * 1024;
+    public static final int SIZE_MEDIUM = 256 * 1024;
+    public static final int SIZE_LARGE = 1024 * 1024;
+    public static final int SIZE_DIRECT = 1024 * 1024;
+    private static final long THRESHOLD_MEDIUM = 1024 * 1024;
+    private static final long THRESHOLD_LARGE = 16 * 1024 * 1024;
+    private static final int[] SIZES = {SIZE_SMALL, SIZE_MEDIUM, SIZE_LARGE};
+    private static final int[] MAX_POOLED = {8, 4, 2};
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final ArrayDeque<byte[]>[] POOLS = new ArrayDeque[]{
+            new ArrayDeque<byte[]>(), new ArrayDeque<byte[]>(), new ArrayDeque<byte[]>()};
+    private static final int MAX_POOLED_DIRECT = 2;
+    private static final ArrayDeque<ByteBuffer> DIRECT_POOL = new ArrayDeque<>();
+
+    private BufferPool() {
+        //no instance
+    }
+
+    /**
+     * 根据数据长度选择缓冲区大小
+     *
+     * @param length 数据长度，未知时传-1
+     * @return 缓冲区大小
+     */
+    public static int getBufferSize(long length) {
+        if (length < 0 || length <= THRESHOLD_MEDIUM) {
+            return SIZE_SMALL;
+        }
+        if (length <= THRESHOLD_LARGE) {
+            return SIZE_MEDIUM;
+        }
+        return SIZE_LARGE;
+    }
+
+    private static int indexOf(int size) {
+        for (int i = 0; i < SIZES.length; i++) {
+            if (SIZES[i] == size) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获取缓冲区
+     *
+     * @param length 数据长度，未知时传-1
+     * @return 缓冲区，使用完毕后应调用{@link #recycle(byte[])}回收
+     */
+    public static byte[] obtain(long length) {
+        final int size = getBufferSize(length);
+        final ArrayDeque<byte[]> pool = POOLS[indexOf(size)];
+        final byte[] buffer;
+        synchronized (pool) {
+            buffer = pool.poll();
+        }
+        return buffer == null ? new byte[size] : buffer;
+    }
+
+    /**
+     * 回收缓冲区
+     * 仅回收由{@link #obtain(long)}获取的缓冲区，其他大小的数组将被忽略
+     *
+     * @param buffer 缓冲区
+     */
+    public static void recycle(byte[] buffer) {
+        if (buffer == null) {
+            return;
+        }
+        final int index = indexOf(buffer.length);
+        if (index < 0) {
+            return;
+        }
+        final ArrayDeque<byte[]> pool = POOLS[index];
+        synchronized (pool) {
+            if (pool.size() < MAX_POOLED[index]) {
+                pool.push(buffer);
+            }
+        }
+    }
+
+    /**
+     * 获取直接缓冲区
+     *
+     * @return 大小为{@link #SIZE_DIRECT}的直接缓冲区，使用完毕后应调用{@link #recycle(ByteBuffer)}回收
+     */
+    public static ByteBuffer obtainDirect() {
+        final ByteBuffer buffer;
+        synchronized (DIRECT_POOL) {
+            buffer = DIRECT_POOL.poll();
+        }
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(SIZE_DIRECT);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * 回收直接缓冲区
+     * 仅回收由{@link #obtainDirect()}获取的缓冲区，其他缓冲区将被忽略
+     *
+     * @param buffer 直接缓冲区
+     */
+    public static void recycle(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.capacity() != SIZE_DIRECT) {
+            return;
+        }
+        synchronized (DIRECT_POOL) {
+            if (DIRECT_POOL.size() < MAX_POOLED_DIRECT) {
+                DIRECT_POOL.push(buffer);
+            }
+        }
+    }
+
+    /**
+     * 清空缓冲池，可在内存紧张时调用
+     */
+    public static void clear() {
+        for (ArrayDeque<byte[]> pool : POOLS) {
+            synchronized (pool) {
+                pool.clear();
+            }
+        }
+        synchronized (DIRECT_POOL) {
+            DIRECT_POOL.clear();
+        }
+    }
+}
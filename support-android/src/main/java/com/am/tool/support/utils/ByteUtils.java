@@ -15,7 +15,8 @@
  */
 package com.am.tool.support.utils;
 
-import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * 字节工具
@@ -23,12 +24,25 @@ import java.math.BigInteger;
  */
 public class ByteUtils {
 
+    private static final char[] HEX_LOWER = "0123456789abcdef".toCharArray();
+    private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+    private static final byte[] HEX_DECODE = new byte[128];
+
+    static {
+        Arrays.fill(HEX_DECODE, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            HEX_DECODE[HEX_LOWER[i]] = (byte) i;
+            HEX_DECODE[HEX_UPPER[i]] = (byte) i;
+        }
+    }
+
     private ByteUtils() {
         //no instance
     }
 
     /**
      * 转换为16进制
+     * 与{@code new BigInteger(1, bytes).toString(16)}一致，去除前导0（全为0时为"0"），长度不足时在前面补0
      *
      * @param bytes     数据
      * @param minLength 16进制字符串长度
@@ -37,15 +51,159 @@ public class ByteUtils {
     public static String toHexString(byte[] bytes, int minLength) {
         if (bytes == null)
             return null;
-        final String str = new BigInteger(1, bytes).toString(16);
-        final StringBuilder builder = new StringBuilder();
-        if (str.length() < minLength) {
-            final int number = minLength - str.length();
-            for (int i = 0; i < number; i++) {
-                builder.append("0");
+        final int count = bytes.length * 2;
+        int start = 0;
+        while (start < count && getNibble(bytes, start) == 0) {
+            start++;
+        }
+        // 全为0时保留一个0
+        final char[] chars = new char[Math.max(minLength, Math.max(1, count - start))];
+        final int offset = chars.length - count;
+        Arrays.fill(chars, 0, offset + start, '0');
+        for (int i = start; i < count; i++) {
+            chars[offset + i] = HEX_LOWER[getNibble(bytes, i)];
+        }
+        return new String(chars);
+    }
+
+    private static int getNibble(byte[] bytes, int index) {
+        return (index & 1) == 0 ? (bytes[index >> 1] >> 4) & 0xF : bytes[index >> 1] & 0xF;
+    }
+
+    /**
+     * 转换为16进制
+     *
+     * @param bytes 数据
+     * @return 小写16进制字符串，长度为数据长度的2倍
+     */
+    public static String toHexString(byte[] bytes) {
+        return toHexString(bytes, false);
+    }
+
+    /**
+     * 转换为16进制
+     *
+     * @param bytes     数据
+     * @param upperCase 是否大写
+     * @return 16进制字符串，长度为数据长度的2倍
+     */
+    public static String toHexString(byte[] bytes, boolean upperCase) {
+        if (bytes == null)
+            return null;
+        final char[] chars = new char[bytes.length * 2];
+        toHexChars(bytes, 0, bytes.length, chars, 0, upperCase);
+        return new String(chars);
+    }
+
+    /**
+     * 转换为16进制
+     *
+     * @param bytes     数据
+     * @param offset    数据起始位置
+     * @param length    数据长度
+     * @param out       输出，剩余长度不小于数据长度的2倍
+     * @param outOffset 输出起始位置
+     * @param upperCase 是否大写
+     * @return 写入的字符数
+     */
+    public static int toHexChars(byte[] bytes, int offset, int length,
+                                 char[] out, int outOffset, boolean upperCase) {
+        final char[] table = upperCase ? HEX_UPPER : HEX_LOWER;
+        int index = outOffset;
+        for (int i = offset; i < offset + length; i++) {
+            final int value = bytes[i] & 0xFF;
+            out[index++] = table[value >>> 4];
+            out[index++] = table[value & 0xF];
+        }
+        return index - outOffset;
+    }
+
+    /**
+     * 追加16进制
+     *
+     * @param builder   StringBuilder
+     * @param bytes     数据
+     * @param upperCase 是否大写
+     * @return StringBuilder
+     */
+    public static StringBuilder appendHex(StringBuilder builder, byte[] bytes, boolean upperCase) {
+        final char[] table = upperCase ? HEX_UPPER : HEX_LOWER;
+        builder.ensureCapacity(builder.length() + bytes.length * 2);
+        for (byte b : bytes) {
+            final int value = b & 0xFF;
+            builder.append(table[value >>> 4]).append(table[value & 0xF]);
+        }
+        return builder;
+    }
+
+    /**
+     * 解析16进制
+     * 不区分大小写，长度为奇数时视为前面补0
+     *
+     * @param hex 16进制字符串
+     * @return 数据
+     * @throws IllegalArgumentException 含有非16进制字符
+     */
+    public static byte[] fromHexString(CharSequence hex) {
+        final int length = hex.length();
+        final byte[] bytes = new byte[(length + 1) / 2];
+        int index = bytes.length - 1;
+        for (int i = length - 1; i >= 0; i -= 2) {
+            final int low = decode(hex.charAt(i));
+            final int high = i > 0 ? decode(hex.charAt(i - 1)) : 0;
+            bytes[index--] = (byte) (high << 4 | low);
+        }
+        return bytes;
+    }
+
+    private static int decode(char c) {
+        final int value = c < HEX_DECODE.length ? HEX_DECODE[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Illegal hex character: " + c);
+        }
+        return value;
+    }
+
+    /**
+     * 查找字节序列
+     * 使用绝对位置读取，不改变缓冲区的位置，可直接用于文件映射
+     *
+     * @param buffer    数据
+     * @param target    要查找的字节序列
+     * @param fromIndex 起始位置（绝对位置）
+     * @return 首次出现的绝对位置，未找到时返回-1
+     */
+    public static int indexOf(ByteBuffer buffer, byte[] target, int fromIndex) {
+        final int limit = buffer.limit();
+        final int start = Math.max(fromIndex, buffer.position());
+        if (target.length == 0) {
+            return start <= limit ? start : -1;
+        }
+        final byte first = target[0];
+        final int max = limit - target.length;
+        for (int i = start; i <= max; i++) {
+            if (buffer.get(i) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < target.length && buffer.get(i + j) == target[j]) {
+                j++;
+            }
+            if (j == target.length) {
+                return i;
             }
         }
-        builder.append(str);
-        return builder.toString();
+        return -1;
+    }
+
+    /**
+     * 查找字节序列
+     *
+     * @param buffer 数据
+     * @param target 要查找的字节序列
+     * @return 首次出现的绝对位置，未找到时返回-1
+     */
+    public static int indexOf(ByteBuffer buffer, byte[] target) {
+        return indexOf(buffer, target, buffer.position());
     }
 }
@@ -0,0 +1,379 @@
+/*
+ * Copyright (C) 2026 AlexMofer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.am.tool.support.utils;
+
+import android.os.Build;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import com.am.tool.support.other.ArchTaskExecutor;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 并行文件夹复制器
+ * 基于Fork/Join，子文件夹与文件均作为任务由工作线程窃取执行，小文件合并为批次，大文件拆分为区段并行复制，
+ * 同时打开的文件数量受限制；指向文件夹的符号链接不会进入（可能形成循环），记为跳过
+ * Created by Alex on 2026/10/17.
+ */
+@RequiresApi(Build.VERSION_CODES.LOLLIPOP)
+public class DirectoryCopier {
+
+    private static final long SMALL_FILE_SIZE = 256 * 1024;
+    private static final long LARGE_FILE_SIZE = 64 * 1024 * 1024;
+    private static final long RANGE_SIZE = 16 * 1024 * 1024;
+    private static final int BATCH_COUNT = 32;
+    private static final long BATCH_SIZE = 4 * 1024 * 1024;
+    private final Semaphore mOpenFiles;
+    @Nullable
+    private final CancellationSignal mSignal;
+    private final Report mReport = new Report();
+
+    private DirectoryCopier(int maxOpenFiles, @Nullable CancellationSignal signal) {
+        mOpenFiles = new Semaphore(Math.max(1, maxOpenFiles));
+        mSignal = signal;
+    }
+
+    /**
+     * 复制文件夹
+     * 在{@link ArchTaskExecutor#getForkJoinPool()}中执行，同时打开的文件数为CPU核心数
+     *
+     * @param source 源文件夹
+     * @param target 目标文件夹（已创建）
+     * @param signal 取消信号
+     * @return 复制报告
+     */
+    public static Report copy(File source, File target, @Nullable CancellationSignal signal) {
+        return copy(source, target, ArchTaskExecutor.getInstance().getForkJoinPool(),
+                Runtime.getRuntime().availableProcessors(), signal);
+    }
+
+    /**
+     * 复制文件夹
+     * 已存在的目标文件不会被覆盖，记为跳过
+     *
+     * @param source       源文件夹
+     * @param target       目标文件夹（已创建）
+     * @param pool         线程池
+     * @param maxOpenFiles 同时复制的文件（区段）数量上限
+     * @param signal       取消信号
+     * @return 复制报告
+     */
+    public static Report copy(File source, File target, ForkJoinPool pool, int maxOpenFiles,
+                              @Nullable CancellationSignal signal) {
+        final DirectoryCopier copier = new DirectoryCopier(maxOpenFiles, signal);
+        pool.invoke(copier.new DirectoryTask(source, target));
+        return copier.mReport;
+    }
+
+    private boolean isCanceled() {
+        if (mSignal != null && mSignal.isCanceled()) {
+            mReport.mCanceled = true;
+            return true;
+        }
+        return false;
+    }
+
+    private void copyFile(File source, File target) {
+        if (isCanceled()) {
+            return;
+        }
+        mOpenFiles.acquireUninterruptibly();
+        try {
+            final long copied = FileUtils.copyOrThrow(source, target, null, mSignal);
+            mReport.mCopiedCount.incrementAndGet();
+            mReport.mCopiedBytes.addAndGet(copied);
+        } catch (OperationCanceledException e) {
+            mReport.mCanceled = true;
+            //noinspection ResultOfMethodCallIgnored
+            target.delete();
+        } catch (Throwable t) {
+            mReport.mFailed.add(source);
+            //noinspection ResultOfMethodCallIgnored
+            target.delete();
+        } finally {
+            mOpenFiles.release();
+        }
+    }
+
+    /**
+     * 复制报告
+     */
+    public static class Report {
+        private final AtomicInteger mCopiedCount = new AtomicInteger();
+        private final AtomicLong mCopiedBytes = new AtomicLong();
+        private final ConcurrentLinkedQueue<File> mSkipped = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<File> mFailed = new ConcurrentLinkedQueue<>();
+        private volatile boolean mCanceled;
+
+        private Report() {
+        }
+
+        /**
+         * 获取已复制的文件数
+         *
+         * @return 已复制的文件数
+         */
+        public int getCopiedCount() {
+            return mCopiedCount.get();
+        }
+
+        /**
+         * 获取已复制的字节数
+         *
+         * @return 已复制的字节数
+         */
+        public long getCopiedBytes() {
+            return mCopiedBytes.get();
+        }
+
+        /**
+         * 获取跳过的源文件（目标已存在）
+         *
+         * @return 跳过的源文件
+         */
+        public List<File> getSkipped() {
+            return Collections.unmodifiableList(new ArrayList<>(mSkipped));
+        }
+
+        /**
+         * 获取复制失败的源文件及文件夹
+         *
+         * @return 复制失败的源文件及文件夹
+         */
+        public List<File> getFailed() {
+            return Collections.unmodifiableList(new ArrayList<>(mFailed));
+        }
+
+        /**
+         * 判断是否已取消
+         *
+         * @return 已取消时返回true
+         */
+        public boolean isCanceled() {
+            return mCanceled;
+        }
+
+        /**
+         * 判断是否全部成功
+         *
+         * @return 未取消且无失败项时返回true
+         */
+        public boolean isSuccessful() {
+            return !mCanceled && mFailed.isEmpty();
+        }
+    }
+
+    private class DirectoryTask extends RecursiveAction {
+
+        private final File mSource;
+        private final File mTarget;
+
+        DirectoryTask(File source, File target) {
+            mSource = source;
+            mTarget = target;
+        }
+
+        @Override
+        protected void compute() {
+            if (isCanceled()) {
+                return;
+            }
+            final File[] children = mSource.listFiles();
+            if (children == null) {
+                mReport.mFailed.add(mSource);
+                return;
+            }
+            final List<RecursiveAction> tasks = new ArrayList<>();
+            List<File> batch = new ArrayList<>();
+            long batchSize = 0;
+            for (File child : children) {
+                final File file = new File(mTarget, child.getName());
+                if (child.isDirectory()) {
+                    if (FileUtils.isSymbolicLink(child)) {
+                        mReport.mSkipped.add(child);
+                        continue;
+                    }
+                    if (file.exists()) {
+                        if (!file.isDirectory()) {
+                            mReport.mFailed.add(child);
+                            continue;
+                        }
+                    } else {
+                        if (!file.mkdir()) {
+                            mReport.mFailed.add(child);
+                            continue;
+                        }
+                    }
+                    tasks.add(new DirectoryTask(child, file));
+                    continue;
+                }
+                if (!child.isFile()) {
+                    continue;
+                }
+                if (file.exists()) {
+                    mReport.mSkipped.add(child);
+                    continue;
+                }
+                final long length = child.length();
+                if (length >= LARGE_FILE_SIZE) {
+                    tasks.add(new LargeFileTask(child, file, length));
+                } else if (length <= SMALL_FILE_SIZE) {
+                    batch.add(child);
+                    batchSize += length;
+                    if (batch.size() >= BATCH_COUNT || batchSize >= BATCH_SIZE) {
+                        tasks.add(new BatchTask(batch, mTarget));
+                        batch = new ArrayList<>();
+                        batchSize = 0;
+                    }
+                } else {
+                    tasks.add(new BatchTask(Collections.singletonList(child), mTarget));
+                }
+            }
+            if (!batch.isEmpty()) {
+                tasks.add(new BatchTask(batch, mTarget));
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    private class BatchTask extends RecursiveAction {
+
+        private final List<File> mSources;
+        private final File mTarget;
+
+        BatchTask(List<File> sources, File target) {
+            mSources = sources;
+            mTarget = target;
+        }
+
+        @Override
+        protected void compute() {
+            for (File source : mSources) {
+                copyFile(source, new File(mTarget, source.getName()));
+            }
+        }
+    }
+
+    private class LargeFileTask extends RecursiveAction {
+
+        private final File mSource;
+        private final File mTarget;
+        private final long mLength;
+
+        LargeFileTask(File source, File target, long length) {
+            mSource = source;
+            mTarget = target;
+            mLength = length;
+        }
+
+        @Override
+        protected void compute() {
+            if (isCanceled()) {
+                return;
+            }
+            try (final RandomAccessFile file = new RandomAccessFile(mTarget, "rw")) {
+                file.setLength(mLength);
+            } catch (Throwable t) {
+                mReport.mFailed.add(mSource);
+                //noinspection ResultOfMethodCallIgnored
+                mTarget.delete();
+                return;
+            }
+            final AtomicBoolean failed = new AtomicBoolean();
+            final List<RangeTask> tasks = new ArrayList<>();
+            for (long start = 0; start < mLength; start += RANGE_SIZE) {
+                tasks.add(new RangeTask(mSource, mTarget, start,
+                        Math.min(RANGE_SIZE, mLength - start), failed));
+            }
+            invokeAll(tasks);
+            if (failed.get() || mReport.mCanceled) {
+                if (!mReport.mCanceled) {
+                    mReport.mFailed.add(mSource);
+                }
+                //noinspection ResultOfMethodCallIgnored
+                mTarget.delete();
+                return;
+            }
+            mReport.mCopiedCount.incrementAndGet();
+            mReport.mCopiedBytes.addAndGet(mLength);
+        }
+    }
+
+    private class RangeTask extends RecursiveAction {
+
+        private final File mSource;
+        private final File mTarget;
+        private final long mStart;
+        private final long mCount;
+        private final AtomicBoolean mFailed;
+
+        RangeTask(File source, File target, long start, long count, AtomicBoolean failed) {
+            mSource = source;
+            mTarget = target;
+            mStart = start;
+            mCount = count;
+            mFailed = failed;
+        }
+
+        @Override
+        protected void compute() {
+            if (mFailed.get() || isCanceled()) {
+                return;
+            }
+            mOpenFiles.acquireUninterruptibly();
+            try (final FileInputStream input = new FileInputStream(mSource);
+                 final RandomAccessFile output = new RandomAccessFile(mTarget, "rw")) {
+                final FileChannel in = input.getChannel();
+                final FileChannel out = output.getChannel();
+                out.position(mStart);
+                long position = mStart;
+                final long end = mStart + mCount;
+                while (position < end) {
+                    if (isCanceled()) {
+                        return;
+                    }
+                    final long count = in.transferTo(position, end - position, out);
+                    if (count <= 0) {
+                        mFailed.set(true);
+                        return;
+                    }
+                    position += count;
+                }
+            } catch (Throwable t) {
+                mFailed.set(true);
+            } finally {
+                mOpenFiles.release();
+            }
+        }
+    }
+}
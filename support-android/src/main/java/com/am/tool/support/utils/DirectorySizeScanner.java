@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2026 AlexMofer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.am.tool.support.utils;
+
+import android.os.Build;
+import android.os.CancellationSignal;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import com.am.tool.support.other.ArchTaskExecutor;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件夹大小扫描器
+ * 并行遍历子文件夹，按路径缓存每个文件夹自身的文件统计及子文件夹列表，以文件夹的最后修改时间判断缓存是否有效，
+ * 重新扫描时未变化的文件夹不再列出子项及查询文件大小。
+ * 缓存的文件夹数量有上限，超出时淘汰最久未使用的文件夹；指向文件夹的符号链接不会进入（可能形成循环），也不统计。
+ * 注意：文件内容原地修改不会改变所在文件夹的修改时间，此类变化需调用{@link #invalidate(File)}后才能被统计。
+ * Created by Alex on 2026/10/17.
+ */
+@RequiresApi(Build.VERSION_CODES.LOLLIPOP)
+public class DirectorySizeScanner {
+
+    // 修改时间过近的文件夹可能在同一时间精度内再次变化，不缓存
+    private static final long STABLE_INTERVAL = 2000;
+    private static final int DEFAULT_CACHE_SIZE = 4096;
+    private static volatile DirectorySizeScanner sInstance;
+    private final LruCache<String, Node> mCache;
+    private final ForkJoinPool mPool;
+
+    /**
+     * 文件夹大小扫描器
+     * 使用{@link ArchTaskExecutor#getForkJoinPool()}
+     */
+    public DirectorySizeScanner() {
+        this(ArchTaskExecutor.getInstance().getForkJoinPool(), DEFAULT_CACHE_SIZE);
+    }
+
+    public DirectorySizeScanner(int parallelism) {
+        this(parallelism, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * 文件夹大小扫描器
+     * 使用独立的线程池
+     *
+     * @param parallelism 并行度
+     * @param cacheSize   缓存的文件夹数量上限
+     */
+    public DirectorySizeScanner(int parallelism, int cacheSize) {
+        this(new ForkJoinPool(Math.max(1, parallelism)), cacheSize);
+    }
+
+    /**
+     * 文件夹大小扫描器
+     *
+     * @param pool      线程池
+     * @param cacheSize 缓存的文件夹数量上限
+     */
+    public DirectorySizeScanner(ForkJoinPool pool, int cacheSize) {
+        mPool = pool;
+        mCache = new LruCache<>(Math.max(1, cacheSize));
+    }
+
+    /**
+     * 获取共享实例
+     *
+     * @return 共享实例
+     */
+    @NonNull
+    public static DirectorySizeScanner getInstance() {
+        if (sInstance != null) {
+            return sInstance;
+        }
+        synchronized (DirectorySizeScanner.class) {
+            if (sInstance == null) {
+                sInstance = new DirectorySizeScanner();
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 扫描文件夹
+     *
+     * @param directory 文件夹
+     * @param callback  回调，在工作线程中调用，每扫描完一个文件夹回调一次累计值
+     * @param signal    取消信号
+     * @return 扫描结果
+     */
+    public Result scan(File directory, @Nullable Callback callback,
+                       @Nullable CancellationSignal signal) {
+        final Session session = new Session(callback, signal);
+        final long[] values = mPool.invoke(new ScanTask(session, directory));
+        return new Result(values[0], values[1], values[2], session.isCanceled());
+    }
+
+    /**
+     * 使文件夹及其子文件夹的缓存失效
+     *
+     * @param directory 文件夹
+     */
+    public void invalidate(File directory) {
+        final String path = directory.getAbsolutePath();
+        final String prefix = path.endsWith(File.separator) ? path : path + File.separator;
+        for (String key : mCache.snapshot().keySet()) {
+            if (key.equals(path) || key.startsWith(prefix)) {
+                mCache.remove(key);
+            }
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        mCache.evictAll();
+    }
+
+    private Node list(File directory, String path, long modified) {
+        final Node cached = mCache.get(path);
+        if (cached != null && modified != 0 && cached.mLastModified == modified) {
+            return cached;
+        }
+        final File[] children = directory.listFiles();
+        if (children == null) {
+            mCache.remove(path);
+            return null;
+        }
+        long size = 0;
+        long files = 0;
+        final List<String> directories = new ArrayList<>();
+        for (File child : children) {
+            if (child.isFile()) {
+                size += child.length();
+                files++;
+            } else if (child.isDirectory() && !FileUtils.isSymbolicLink(child)) {
+                directories.add(child.getName());
+            }
+        }
+        final Node node = new Node(modified, size, files,
+                directories.toArray(new String[0]));
+        if (modified != 0 && System.currentTimeMillis() - modified >= STABLE_INTERVAL) {
+            mCache.put(path, node);
+        } else {
+            mCache.remove(path);
+        }
+        return node;
+    }
+
+    /**
+     * 回调
+     */
+    public interface Callback {
+
+        /**
+         * 扫描进度
+         *
+         * @param size           当前累计大小
+         * @param fileCount      当前累计文件数
+         * @param directoryCount 当前累计子文件夹数
+         */
+        void onProgress(long size, long fileCount, long directoryCount);
+    }
+
+    /**
+     * 扫描结果
+     */
+    public static class Result {
+        private final long mSize;
+        private final long mFileCount;
+        private final long mDirectoryCount;
+        private final boolean mCanceled;
+
+        private Result(long size, long fileCount, long directoryCount, boolean canceled) {
+            mSize = size;
+            mFileCount = fileCount;
+            mDirectoryCount = directoryCount;
+            mCanceled = canceled;
+        }
+
+        /**
+         * 获取总大小，可使用{@link com.am.tool.support.other.ByteFormatter}格式化
+         *
+         * @return 总大小
+         */
+        public long getSize() {
+            return mSize;
+        }
+
+        /**
+         * 获取文件总数
+         *
+         * @return 文件总数
+         */
+        public long getFileCount() {
+            return mFileCount;
+        }
+
+        /**
+         * 获取子文件夹总数
+         *
+         * @return 子文件夹总数
+         */
+        public long getDirectoryCount() {
+            return mDirectoryCount;
+        }
+
+        /**
+         * 判断是否已取消，取消时结果仅为部分统计
+         *
+         * @return 已取消时返回true
+         */
+        public boolean isCanceled() {
+            return mCanceled;
+        }
+    }
+
+    private static class Node {
+        final long mLastModified;
+        final long mSize;
+        final long mFileCount;
+        final String[] mDirectories;
+
+        Node(long lastModified, long size, long fileCount, String[] directories) {
+            mLastModified = lastModified;
+            mSize = size;
+            mFileCount = fileCount;
+            mDirectories = directories;
+        }
+    }
+
+    private static class Session {
+        final AtomicLong mSize = new AtomicLong();
+        final AtomicLong mFileCount = new AtomicLong();
+        final AtomicLong mDirectoryCount = new AtomicLong();
+        @Nullable
+        final Callback mCallback;
+        @Nullable
+        final CancellationSignal mSignal;
+
+        Session(@Nullable Callback callback, @Nullable CancellationSignal signal) {
+            mCallback = callback;
+            mSignal = signal;
+        }
+
+        boolean isCanceled() {
+            return mSignal != null && mSignal.isCanceled();
+        }
+
+        void report(Node node) {
+            final long size = mSize.addAndGet(node.mSize);
+            final long files = mFileCount.addAndGet(node.mFileCount);
+            final long directories = mDirectoryCount.addAndGet(node.mDirectories.length);
+            if (mCallback != null) {
+                mCallback.onProgress(size, files, directories);
+            }
+        }
+    }
+
+    private class ScanTask extends RecursiveTask<long[]> {
+
+        private final Session mSession;
+        private final File mDirectory;
+
+        ScanTask(Session session, File directory) {
+            mSession = session;
+            mDirectory = directory;
+        }
+
+        @Override
+        protected long[] compute() {
+            final long[] values = new long[3];
+            if (mSession.isCanceled()) {
+                return values;
+            }
+            final String path = mDirectory.getAbsolutePath();
+            final Node node = list(mDirectory, path, mDirectory.lastModified());
+            if (node == null) {
+                return values;
+            }
+            mSession.report(node);
+            values[0] = node.mSize;
+            values[1] = node.mFileCount;
+            values[2] = node.mDirectories.length;
+            final List<ScanTask> tasks = new ArrayList<>(node.mDirectories.length);
+            for (String name : node.mDirectories) {
+                tasks.add(new ScanTask(mSession, new File(mDirectory, name)));
+            }
+            for (ScanTask task : invokeAll(tasks)) {
+                final long[] child = task.join();
+                values[0] += child[0];
+                values[1] += child[1];
+                values[2] += child[2];
+            }
+            return values;
+        }
+    }
+}
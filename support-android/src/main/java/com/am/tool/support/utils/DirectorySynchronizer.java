@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2026 AlexMofer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.am.tool.support.utils;
+
+import android.os.Build;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+
+import androidx.annotation.Nullable;
+
+import com.am.tool.support.security.MessageDigestUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 文件夹同步器
+ * 按大小及最后修改时间（可选内容摘要）比较源文件夹与目标文件夹，仅复制新增或变化的文件，可选删除目标中多余的项；
+ * 修改时间的比较允许2秒误差（vfat等文件系统的精度）；目标文件系统不支持设置修改时间时（如部分FUSE存储），
+ * 大小相同且目标文件晚于源文件即视为未变化；文件先复制到临时文件再重命名覆盖，同步中断不会损坏已有的目标文件；
+ * 指向文件夹的符号链接不会进入（可能形成循环或指向源文件夹之外），记为跳过
+ * Created by Alex on 2026/10/17.
+ */
+public class DirectorySynchronizer {
+
+    /**
+     * 大小相同但修改时间不同时比较内容摘要，摘要相同则仅同步修改时间
+     */
+    @SuppressWarnings("PointlessBitwiseExpression")
+    public static final int FLAG_COMPARE_DIGEST = 1 << 0;
+    /**
+     * 删除目标文件夹中源文件夹不存在的项
+     */
+    public static final int FLAG_DELETE_ORPHANS = 1 << 1;
+    /**
+     * 仅计算变化，不修改目标文件夹
+     */
+    public static final int FLAG_DRY_RUN = 1 << 2;
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final long MODIFIED_TOLERANCE = 2000;
+    private final int mFlags;
+    @Nullable
+    private final CancellationSignal mSignal;
+    private final ChangeSet mChangeSet = new ChangeSet();
+    private boolean mTimePreserved = true;
+
+    private DirectorySynchronizer(int flags, @Nullable CancellationSignal signal) {
+        mFlags = flags;
+        mSignal = signal;
+    }
+
+    /**
+     * 同步文件夹
+     *
+     * @param source 源文件夹
+     * @param target 目标文件夹
+     * @param flags  {@link #FLAG_COMPARE_DIGEST}、{@link #FLAG_DELETE_ORPHANS}、{@link #FLAG_DRY_RUN}
+     * @param signal 取消信号
+     * @return 变化集合
+     */
+    public static ChangeSet sync(File source, File target, int flags,
+                                 @Nullable CancellationSignal signal) {
+        final DirectorySynchronizer synchronizer = new DirectorySynchronizer(flags, signal);
+        synchronizer.sync(source, target);
+        return synchronizer.mChangeSet;
+    }
+
+    private boolean hasFlag(int flag) {
+        return (mFlags & flag) == flag;
+    }
+
+    private boolean isCanceled() {
+        if (mSignal != null && mSignal.isCanceled()) {
+            mChangeSet.mCanceled = true;
+        }
+        return mChangeSet.mCanceled;
+    }
+
+    private void sync(File source, File target) {
+        final boolean dryRun = hasFlag(FLAG_DRY_RUN);
+        if (!target.exists() && !dryRun && !target.mkdirs()) {
+            mChangeSet.mFailed.add(target);
+            return;
+        }
+        final long modified = target.lastModified();
+        if (modified != 0) {
+            // 检测目标文件系统是否支持设置修改时间
+            mTimePreserved = target.setLastModified(modified);
+        }
+        final ArrayDeque<File[]> stack = new ArrayDeque<>();
+        stack.push(new File[]{source, target});
+        while (!stack.isEmpty()) {
+            if (isCanceled()) {
+                return;
+            }
+            final File[] pair = stack.pop();
+            final File[] children = pair[0].listFiles();
+            if (children == null) {
+                mChangeSet.mFailed.add(pair[0]);
+                continue;
+            }
+            final String[] names = pair[1].list();
+            final Set<String> orphans = names == null ?
+                    new HashSet<String>() : new HashSet<>(Arrays.asList(names));
+            for (File child : children) {
+                if (isCanceled()) {
+                    return;
+                }
+                final File file = new File(pair[1], child.getName());
+                orphans.remove(child.getName());
+                if (child.isDirectory()) {
+                    if (isSymbolicLink(child)) {
+                        // 可能形成循环或指向源文件夹之外，不进入
+                        mChangeSet.mSkipped.add(child);
+                        continue;
+                    }
+                    if (file.exists() && !file.isDirectory() && !replace(child, file)) {
+                        continue;
+                    }
+                    if (!file.exists() && !dryRun && !file.mkdir()) {
+                        mChangeSet.mFailed.add(child);
+                        continue;
+                    }
+                    stack.push(new File[]{child, file});
+                } else if (child.isFile()) {
+                    if (file.isDirectory()) {
+                        if (replace(child, file)) {
+                            copy(child, file, mChangeSet.mAdded);
+                        }
+                    } else if (!file.exists()) {
+                        copy(child, file, mChangeSet.mAdded);
+                    } else if (isChanged(child, file)) {
+                        copy(child, file, mChangeSet.mUpdated);
+                    } else {
+                        mChangeSet.mUnchangedCount++;
+                    }
+                }
+            }
+            if (hasFlag(FLAG_DELETE_ORPHANS)) {
+                for (String name : orphans) {
+                    delete(new File(pair[1], name));
+                }
+            }
+        }
+    }
+
+    private static boolean isSymbolicLink(File file) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            return FileUtils.isSymbolicLink(file);
+        }
+        final File parent = file.getAbsoluteFile().getParentFile();
+        if (parent == null) {
+            return false;
+        }
+        try {
+            final File resolved = new File(parent.getCanonicalFile(), file.getName());
+            return !resolved.getCanonicalFile().equals(resolved.getAbsoluteFile());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private boolean replace(File source, File target) {
+        // 目标类型不一致
+        if (!hasFlag(FLAG_DELETE_ORPHANS)) {
+            mChangeSet.mFailed.add(source);
+            return false;
+        }
+        return delete(target);
+    }
+
+    private boolean delete(File file) {
+        if (hasFlag(FLAG_DRY_RUN)) {
+            mChangeSet.mDeleted.add(file);
+            return true;
+        }
+        if (FileDeleter.delete(file, mSignal).isSuccessful()) {
+            mChangeSet.mDeleted.add(file);
+            return true;
+        }
+        mChangeSet.mFailed.add(file);
+        return false;
+    }
+
+    private boolean isChanged(File source, File target) {
+        if (source.length() != target.length()) {
+            return true;
+        }
+        final long modified = source.lastModified();
+        final long targetModified = target.lastModified();
+        if (Math.abs(modified - targetModified) <= MODIFIED_TOLERANCE) {
+            return false;
+        }
+        if (!mTimePreserved && targetModified > modified) {
+            // 无法保留修改时间，复制后的目标文件晚于源文件
+            return false;
+        }
+        if (!hasFlag(FLAG_COMPARE_DIGEST)) {
+            return true;
+        }
+        final byte[] digest = getDigest(source);
+        if (digest == null || !Arrays.equals(digest, getDigest(target))) {
+            return true;
+        }
+        if (!hasFlag(FLAG_DRY_RUN) && !target.setLastModified(modified)) {
+            mTimePreserved = false;
+        }
+        return false;
+    }
+
+    @Nullable
+    private static byte[] getDigest(File file) {
+        try (final FileInputStream input = new FileInputStream(file)) {
+            return MessageDigestUtils.getMessageDigest(input, DIGEST_ALGORITHM);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void copy(File source, File target, List<File> changes) {
+        if (hasFlag(FLAG_DRY_RUN)) {
+            changes.add(target);
+            return;
+        }
+        File temp = null;
+        try {
+            temp = FileUtils.createTempSibling(target);
+            FileUtils.copyOrThrow(source, temp, null, mSignal);
+            if (!temp.setLastModified(source.lastModified())) {
+                mTimePreserved = false;
+            }
+            FileUtils.replaceOrThrow(temp, target);
+            temp = null;
+            changes.add(target);
+        } catch (OperationCanceledException e) {
+            mChangeSet.mCanceled = true;
+            mChangeSet.mFailed.add(source);
+        } catch (Throwable t) {
+            mChangeSet.mFailed.add(source);
+        } finally {
+            if (temp != null) {
+                //noinspection ResultOfMethodCallIgnored
+                temp.delete();
+            }
+        }
+    }
+
+    /**
+     * 变化集合
+     */
+    public static class ChangeSet {
+        private final List<File> mAdded = new ArrayList<>();
+        private final List<File> mUpdated = new ArrayList<>();
+        private final List<File> mDeleted = new ArrayList<>();
+        private final List<File> mFailed = new ArrayList<>();
+        private final List<File> mSkipped = new ArrayList<>();
+        private int mUnchangedCount;
+        private boolean mCanceled;
+
+        private ChangeSet() {
+        }
+
+        /**
+         * 获取新增的目标文件
+         *
+         * @return 新增的目标文件
+         */
+        public List<File> getAdded() {
+            return Collections.unmodifiableList(mAdded);
+        }
+
+        /**
+         * 获取更新的目标文件
+         *
+         * @return 更新的目标文件
+         */
+        public List<File> getUpdated() {
+            return Collections.unmodifiableList(mUpdated);
+        }
+
+        /**
+         * 获取删除的目标文件及文件夹
+         *
+         * @return 删除的目标文件及文件夹
+         */
+        public List<File> getDeleted() {
+            return Collections.unmodifiableList(mDeleted);
+        }
+
+        /**
+         * 获取处理失败的文件及文件夹
+         *
+         * @return 处理失败的文件及文件夹
+         */
+        public List<File> getFailed() {
+            return Collections.unmodifiableList(mFailed);
+        }
+
+        /**
+         * 获取跳过的源文件夹（指向文件夹的符号链接）
+         *
+         * @return 跳过的源文件夹
+         */
+        public List<File> getSkipped() {
+            return Collections.unmodifiableList(mSkipped);
+        }
+
+        /**
+         * 获取未变化的文件数
+         *
+         * @return 未变化的文件数
+         */
+        public int getUnchangedCount() {
+            return mUnchangedCount;
+        }
+
+        /**
+         * 判断是否已取消
+         *
+         * @return 已取消时返回true
+         */
+        public boolean isCanceled() {
+            return mCanceled;
+        }
+
+        /**
+         * 判断是否有变化
+         *
+         * @return 有新增、更新或删除时返回true
+         */
+        public boolean hasChanges() {
+            return !mAdded.isEmpty() || !mUpdated.isEmpty() || !mDeleted.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2026 AlexMofer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.am.tool.support.utils;
+
+import android.os.CancellationSignal;
+
+import androidx.annotation.Nullable;
+
+import com.am.tool.support.other.ArchTaskExecutor;
+import com.am.tool.support.other.ParallelWorkQueue;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件删除器
+ * 使用显式栈代替递归，避免深层目录栈溢出；先直接删除，仅在删除失败时才列出子项，减少文件状态查询；
+ * 并行模式下任意层级的子文件夹均作为任务加入{@link ParallelWorkQueue}，在共享线程池及调用线程中执行，
+ * 仅有一个大型子文件夹的目录也能并行删除
+ * Created by Alex on 2026/10/17.
+ */
+public class FileDeleter {
+
+    private final AtomicLong mDeleted = new AtomicLong();
+    private final AtomicLong mFailed = new AtomicLong();
+    @Nullable
+    private final CancellationSignal mSignal;
+    private volatile boolean mCanceled;
+
+    private FileDeleter(@Nullable CancellationSignal signal) {
+        mSignal = signal;
+    }
+
+    /**
+     * 删除文件及文件夹
+     *
+     * @param file   文件及文件夹
+     * @param signal 取消信号
+     * @return 删除结果
+     */
+    public static Result delete(@Nullable File file, @Nullable CancellationSignal signal) {
+        return delete(file, 1, signal);
+    }
+
+    /**
+     * 删除文件及文件夹
+     *
+     * @param file        文件及文件夹
+     * @param parallelism 并行度，大于1时子树在{@link ArchTaskExecutor#getDiskIOExecutor()}中并行删除
+     * @param signal      取消信号
+     * @return 删除结果
+     */
+    public static Result delete(@Nullable File file, int parallelism,
+                                @Nullable CancellationSignal signal) {
+        return delete(file, parallelism, null, signal);
+    }
+
+    /**
+     * 删除文件及文件夹
+     *
+     * @param file        文件及文件夹
+     * @param parallelism 并行度（包括调用线程），大于1时子树在线程池中并行删除
+     * @param executor    线程池，为null时使用{@link ArchTaskExecutor#getDiskIOExecutor()}
+     * @param signal      取消信号
+     * @return 删除结果
+     */
+    public static Result delete(@Nullable File file, int parallelism, @Nullable Executor executor,
+                                @Nullable CancellationSignal signal) {
+        final FileDeleter deleter = new FileDeleter(signal);
+        if (file == null || !file.exists()) {
+            return deleter.getResult(true);
+        }
+        if (parallelism <= 1) {
+            deleter.deleteTree(file);
+        } else {
+            deleter.deleteParallel(file, false, parallelism, executor);
+        }
+        return deleter.getResult(!file.exists());
+    }
+
+    /**
+     * 清空文件夹
+     *
+     * @param directory   文件夹
+     * @param parallelism 并行度，大于1时子树在{@link ArchTaskExecutor#getDiskIOExecutor()}中并行删除
+     * @param signal      取消信号
+     * @return 删除结果，文件夹不存在或不是文件夹时失败，无法列出子项时视为已清空
+     */
+    public static Result clear(@Nullable File directory, int parallelism,
+                               @Nullable CancellationSignal signal) {
+        return clear(directory, parallelism, null, signal);
+    }
+
+    /**
+     * 清空文件夹
+     *
+     * @param directory   文件夹
+     * @param parallelism 并行度（包括调用线程），大于1时子树在线程池中并行删除
+     * @param executor    线程池，为null时使用{@link ArchTaskExecutor#getDiskIOExecutor()}
+     * @param signal      取消信号
+     * @return 删除结果，文件夹不存在或不是文件夹时失败，无法列出子项时视为已清空
+     */
+    public static Result clear(@Nullable File directory, int parallelism,
+                               @Nullable Executor executor, @Nullable CancellationSignal signal) {
+        final FileDeleter deleter = new FileDeleter(signal);
+        if (directory == null || !directory.isDirectory()) {
+            return deleter.getResult(false);
+        }
+        if (parallelism <= 1) {
+            final File[] children = directory.listFiles();
+            if (children == null) {
+                return deleter.getResult(true);
+            }
+            for (File child : children) {
+                if (deleter.isCanceled()) {
+                    break;
+                }
+                deleter.deleteTree(child);
+            }
+        } else {
+            deleter.deleteParallel(directory, true, parallelism, executor);
+        }
+        return deleter.getResult(deleter.mFailed.get() == 0 && !deleter.mCanceled);
+    }
+
+    private Result getResult(boolean successful) {
+        return new Result(mDeleted.get(), mFailed.get(), mCanceled, successful && !mCanceled);
+    }
+
+    private boolean isCanceled() {
+        if (mSignal != null && mSignal.isCanceled()) {
+            mCanceled = true;
+        }
+        return mCanceled;
+    }
+
+    private void deleteEntry(File file) {
+        if (file.delete()) {
+            mDeleted.incrementAndGet();
+        } else if (file.exists()) {
+            mFailed.incrementAndGet();
+        }
+    }
+
+    private void deleteTree(File root) {
+        final ArrayDeque<Entry> stack = new ArrayDeque<>();
+        stack.push(new Entry(root, false));
+        while (!stack.isEmpty()) {
+            if (isCanceled()) {
+                return;
+            }
+            final Entry entry = stack.pop();
+            if (entry.mExpanded) {
+                // 子项已处理
+                deleteEntry(entry.mFile);
+                continue;
+            }
+            if (entry.mFile.delete()) {
+                // 文件、链接或空文件夹
+                mDeleted.incrementAndGet();
+                continue;
+            }
+            final File[] children = entry.mFile.listFiles();
+            if (children == null) {
+                if (entry.mFile.exists()) {
+                    mFailed.incrementAndGet();
+                }
+                continue;
+            }
+            stack.push(new Entry(entry.mFile, true));
+            for (File child : children) {
+                stack.push(new Entry(child, false));
+            }
+        }
+    }
+
+    private void deleteParallel(File root, boolean keepRoot, int parallelism,
+                                @Nullable Executor executor) {
+        final ParallelWorkQueue queue = new ParallelWorkQueue(executor == null ?
+                ArchTaskExecutor.getInstance().getDiskIOExecutor() : executor, parallelism);
+        queue.add(new Node(queue, null, root, keepRoot));
+        try {
+            queue.drain();
+        } catch (InterruptedException e) {
+            mCanceled = true;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 删除结果
+     */
+    public static class Result {
+        private final long mDeletedCount;
+        private final long mFailedCount;
+        private final boolean mCanceled;
+        private final boolean mSuccessful;
+
+        private Result(long deleted, long failed, boolean canceled, boolean successful) {
+            mDeletedCount = deleted;
+            mFailedCount = failed;
+            mCanceled = canceled;
+            mSuccessful = successful;
+        }
+
+        /**
+         * 获取已删除的文件及文件夹数
+         *
+         * @return 已删除的文件及文件夹数
+         */
+        public long getDeletedCount() {
+            return mDeletedCount;
+        }
+
+        /**
+         * 获取删除失败的文件及文件夹数
+         *
+         * @return 删除失败的文件及文件夹数
+         */
+        public long getFailedCount() {
+            return mFailedCount;
+        }
+
+        /**
+         * 判断是否已取消
+         *
+         * @return 已取消时返回true
+         */
+        public boolean isCanceled() {
+            return mCanceled;
+        }
+
+        /**
+         * 判断是否成功
+         *
+         * @return 删除（清空）成功时返回true
+         */
+        public boolean isSuccessful() {
+            return mSuccessful;
+        }
+    }
+
+    private static class Entry {
+        final File mFile;
+        final boolean mExpanded;
+
+        Entry(File file, boolean expanded) {
+            mFile = file;
+            mExpanded = expanded;
+        }
+    }
+
+    /**
+     * 并行删除的文件夹节点
+     * 子项中无法直接删除的（非空文件夹）作为新节点加入工作队列，任意深度的子树均可并行；
+     * 节点持有未完成子节点的计数，最后一个子节点完成时由其所在线程删除该文件夹，任务间无需等待
+     */
+    private final class Node implements Runnable {
+        private final ParallelWorkQueue mQueue;
+        @Nullable
+        private final Node mParent;
+        private final File mFile;
+        private final boolean mKeep;
+        // 自身持有一个计数，子项处理完毕后释放
+        private final AtomicInteger mPending = new AtomicInteger(1);
+
+        Node(ParallelWorkQueue queue, @Nullable Node parent, File file, boolean keep) {
+            mQueue = queue;
+            mParent = parent;
+            mFile = file;
+            mKeep = keep;
+        }
+
+        @Override
+        public void run() {
+            if (isCanceled()) {
+                complete(false);
+                return;
+            }
+            if (!mKeep && mFile.delete()) {
+                mDeleted.incrementAndGet();
+                complete(false);
+                return;
+            }
+            final File[] children = mFile.listFiles();
+            if (children == null) {
+                if (!mKeep && mFile.exists()) {
+                    mFailed.incrementAndGet();
+                }
+                complete(false);
+                return;
+            }
+            for (File child : children) {
+                if (isCanceled()) {
+                    break;
+                }
+                if (child.delete()) {
+                    mDeleted.incrementAndGet();
+                    continue;
+                }
+                mPending.incrementAndGet();
+                mQueue.add(new Node(mQueue, this, child, false));
+            }
+            finish();
+        }
+
+        private void finish() {
+            if (mPending.decrementAndGet() == 0) {
+                complete(!mKeep);
+            }
+        }
+
+        private void complete(boolean delete) {
+            if (delete && !isCanceled()) {
+                deleteEntry(mFile);
+            }
+            if (mParent != null) {
+                mParent.finish();
+            }
+        }
+    }
+}
@@ -15,25 +15,45 @@
  */
 package com.am.tool.support.utils;
 
+import android.os.Build;
+import android.os.CancellationSignal;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
 import android.text.TextUtils;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import com.am.tool.support.security.MessageDigestResult;
+import com.am.tool.support.security.MessageDigestUtils;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 文件工具类
@@ -41,6 +61,8 @@ import java.security.MessageDigest;
  */
 public class FileUtils {
 
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
     private FileUtils() {
         //no instance
     }
@@ -53,9 +75,215 @@ public class FileUtils {
      * @throws IOException 输入输出异常
      */
     public static void copyOrThrow(File source, File target) throws IOException {
+        copyOrThrow(source, target, null, null);
+    }
+
+    /**
+     * 复制文件
+     * 源文件为普通文件时通过{@link StreamUtils#transfer}由内核完成复制并读取到末尾，否则使用流复制
+     *
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 输入输出异常
+     */
+    public static long copyOrThrow(File source, File target,
+                                   @Nullable StreamUtils.ProgressListener listener,
+                                   @Nullable CancellationSignal signal) throws IOException {
         try (final FileInputStream input = new FileInputStream(source);
              final FileOutputStream output = new FileOutputStream(target)) {
-            StreamUtils.copy(input, output);
+            if (source.isFile()) {
+                return StreamUtils.transfer(input.getChannel(), output.getChannel(),
+                        listener, signal);
+            }
+            return StreamUtils.copy(input, output, -1, listener, signal);
+        }
+    }
+
+    /**
+     * 可续传复制文件
+     * 定期在目标文件旁保存检查点，中断后再次调用时校验已复制部分并从断点继续
+     *
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时保存检查点并抛出{@link android.os.OperationCanceledException}
+     * @return 复制结果
+     * @throws IOException 输入输出异常
+     * @see ResumableCopier
+     */
+    public static ResumableCopier.Result copyResumableOrThrow(
+            File source, File target, @Nullable StreamUtils.ProgressListener listener,
+            @Nullable CancellationSignal signal) throws IOException {
+        return ResumableCopier.copy(source, target, null, listener, signal);
+    }
+
+    /**
+     * 复制文件并计算信息摘要
+     * 读取源文件时同时计算信息摘要，源文件只读取一次；校验时仅重新读取目标文件。
+     * 注意：同步后的重新读取通常由页缓存提供，只能发现写入过程中的错误，不能证明存储设备上的数据完好
+     *
+     * @param source     源文件
+     * @param target     目标文件
+     * @param verify     是否校验，校验时将目标文件同步到存储设备后重新读取并比较信息摘要，不一致时删除目标文件
+     * @param listener   进度监听
+     * @param signal     取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @param algorithms 算法，如：MD5、SHA-256
+     * @return 源文件的信息摘要结果
+     * @throws IOException 输入输出异常，校验不一致时也会抛出
+     */
+    public static MessageDigestResult copyAndDigestOrThrow(
+            File source, File target, boolean verify,
+            @Nullable StreamUtils.ProgressListener listener,
+            @Nullable CancellationSignal signal, String... algorithms) throws IOException {
+        try (final FileInputStream input = new FileInputStream(source)) {
+            return copyAndDigestOrThrow(input, source.length(), target, verify,
+                    listener, signal, algorithms);
+        }
+    }
+
+    /**
+     * 复制文件并计算信息摘要
+     *
+     * @param source     源
+     * @param target     目标文件
+     * @param verify     是否校验，校验时将目标文件同步到存储设备后重新读取并比较信息摘要，不一致时删除目标文件
+     * @param listener   进度监听
+     * @param signal     取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @param algorithms 算法，如：MD5、SHA-256
+     * @return 源的信息摘要结果
+     * @throws IOException 输入输出异常，校验不一致时也会抛出
+     */
+    public static MessageDigestResult copyAndDigestOrThrow(
+            InputStream source, File target, boolean verify,
+            @Nullable StreamUtils.ProgressListener listener,
+            @Nullable CancellationSignal signal, String... algorithms) throws IOException {
+        return copyAndDigestOrThrow(source, -1, target, verify, listener, signal, algorithms);
+    }
+
+    private static MessageDigestResult copyAndDigestOrThrow(
+            InputStream source, long length, File target, boolean verify,
+            @Nullable StreamUtils.ProgressListener listener,
+            @Nullable CancellationSignal signal, String... algorithms) throws IOException {
+        final MessageDigest[] digests = getMessageDigests(algorithms);
+        final MessageDigestResult result;
+        try {
+            final long copied;
+            try (final FileOutputStream output = new FileOutputStream(target)) {
+                copied = StreamUtils.copy(source, output, length, digests, listener, signal);
+                if (verify) {
+                    output.getFD().sync();
+                }
+            }
+            result = getResult(copied, digests);
+            if (verify) {
+                final long read;
+                try (final FileInputStream input = new FileInputStream(target)) {
+                    read = digest(input, copied, digests, signal);
+                }
+                if (!result.equals(getResult(read, digests))) {
+                    //noinspection ResultOfMethodCallIgnored
+                    target.delete();
+                    throw new IOException("Verification failed: " + target);
+                }
+            }
+        } finally {
+            for (MessageDigest digest : digests) {
+                MessageDigestUtils.release(digest);
+            }
+        }
+        return result;
+    }
+
+    private static MessageDigest[] getMessageDigests(String... algorithms) {
+        if (algorithms.length == 0) {
+            throw new IllegalArgumentException("No algorithm.");
+        }
+        final MessageDigest[] digests = new MessageDigest[algorithms.length];
+        try {
+            for (int i = 0; i < algorithms.length; i++) {
+                digests[i] = MessageDigestUtils.obtain(algorithms[i]);
+            }
+        } catch (NoSuchAlgorithmException e) {
+            for (MessageDigest digest : digests) {
+                MessageDigestUtils.release(digest);
+            }
+            throw new IllegalArgumentException(e);
+        }
+        return digests;
+    }
+
+    private static MessageDigestResult getResult(long length, MessageDigest[] digests) {
+        final Map<String, byte[]> values = new LinkedHashMap<>();
+        for (MessageDigest digest : digests) {
+            values.put(digest.getAlgorithm(), digest.digest());
+        }
+        return new MessageDigestResult(length, values);
+    }
+
+    private static long digest(InputStream input, long length, MessageDigest[] digests,
+                               @Nullable CancellationSignal signal) throws IOException {
+        final byte[] buffer = BufferPool.obtain(length);
+        try {
+            long read = 0;
+            int count;
+            while (true) {
+                if (signal != null) {
+                    signal.throwIfCanceled();
+                }
+                count = input.read(buffer);
+                if (count == -1) {
+                    return read;
+                }
+                for (MessageDigest digest : digests) {
+                    digest.update(buffer, 0, count);
+                }
+                read += count;
+            }
+        } finally {
+            BufferPool.recycle(buffer);
+        }
+    }
+
+    /**
+     * 流水线复制文件
+     * 读取与写入在两个线程中同时进行，适用于SD卡、USB OTG等读写均较慢的介质
+     *
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 输入输出异常
+     */
+    public static long copyPipelinedOrThrow(File source, File target,
+                                            @Nullable StreamUtils.ProgressListener listener,
+                                            @Nullable CancellationSignal signal)
+            throws IOException {
+        try (final FileInputStream input = new FileInputStream(source);
+             final FileOutputStream output = new FileOutputStream(target)) {
+            return StreamUtils.copyPipelined(input, output, source.length(), listener, signal);
+        }
+    }
+
+    /**
+     * 流水线复制文件
+     *
+     * @param source   源
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 输入输出异常
+     */
+    public static long copyPipelinedOrThrow(InputStream source, File target,
+                                            @Nullable StreamUtils.ProgressListener listener,
+                                            @Nullable CancellationSignal signal)
+            throws IOException {
+        try (final FileOutputStream output = new FileOutputStream(target)) {
+            return StreamUtils.copyPipelined(source, output, -1, listener, signal);
         }
     }
 
@@ -67,8 +295,24 @@ public class FileUtils {
      * @throws IOException 输入输出异常
      */
     public static void copyOrThrow(InputStream source, File target) throws IOException {
+        copyOrThrow(source, target, null, null);
+    }
+
+    /**
+     * 复制文件
+     *
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 输入输出异常
+     */
+    public static long copyOrThrow(InputStream source, File target,
+                                   @Nullable StreamUtils.ProgressListener listener,
+                                   @Nullable CancellationSignal signal) throws IOException {
         try (final FileOutputStream output = new FileOutputStream(target)) {
-            StreamUtils.copy(source, output);
+            return StreamUtils.copy(source, output, -1, listener, signal);
         }
     }
 
@@ -80,8 +324,24 @@ public class FileUtils {
      * @throws IOException 输入输出异常
      */
     public static void copyOrThrow(File source, OutputStream target) throws IOException {
+        copyOrThrow(source, target, null, null);
+    }
+
+    /**
+     * 复制文件
+     *
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 输入输出异常
+     */
+    public static long copyOrThrow(File source, OutputStream target,
+                                   @Nullable StreamUtils.ProgressListener listener,
+                                   @Nullable CancellationSignal signal) throws IOException {
         try (final FileInputStream input = new FileInputStream(source)) {
-            StreamUtils.copy(input, target);
+            return StreamUtils.copy(input, target, source.length(), listener, signal);
         }
     }
 
@@ -94,9 +354,8 @@ public class FileUtils {
      * @return 复制成功时返回true
      */
     public static boolean copyFile(File source, File target) {
-        try (final FileInputStream input = new FileInputStream(source);
-             final FileOutputStream output = new FileOutputStream(target)) {
-            StreamUtils.copy(input, output);
+        try {
+            copyOrThrow(source, target);
             return true;
         } catch (Throwable t) {
             return false;
@@ -111,8 +370,8 @@ public class FileUtils {
      * @return 复制成功时返回true
      */
     public static boolean copyFile(InputStream source, File target) {
-        try (final FileOutputStream output = new FileOutputStream(target)) {
-            StreamUtils.copy(source, output);
+        try {
+            copyOrThrow(source, target);
             return true;
         } catch (Throwable t) {
             return false;
@@ -127,8 +386,8 @@ public class FileUtils {
      * @return 复制成功时返回true
      */
     public static boolean copyFile(File source, OutputStream target) {
-        try (final FileInputStream input = new FileInputStream(source)) {
-            StreamUtils.copy(input, target);
+        try {
+            copyOrThrow(source, target);
             return true;
         } catch (Throwable t) {
             return false;
@@ -291,53 +550,279 @@ public class FileUtils {
     }
 
     /**
-     * 读取字符串内容
+     * 写入字节内容
+     *
+     * @param file    文件
+     * @param content 字节内容
+     * @return 是否成功
+     */
+    public static boolean writeBytes(File file, byte[] content) {
+        if (content == null)
+            return file.delete();
+        try (final FileOutputStream output = new FileOutputStream(file)) {
+            output.write(content);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * 原子写入
+     * 先写入同目录下的临时文件，再重命名覆盖目标文件，写入过程中崩溃不会损坏原文件
+     *
+     * @param file    文件
+     * @param content 内容
+     * @param sync    是否在重命名前将数据同步到存储设备
+     * @throws IOException 输入输出异常
+     */
+    public static void writeAtomicOrThrow(File file, ByteBuffer content, boolean sync)
+            throws IOException {
+        final File temp = createTempSibling(file);
+        boolean written = false;
+        try (final FileOutputStream output = new FileOutputStream(temp)) {
+            final FileChannel channel = output.getChannel();
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            if (sync) {
+                channel.force(true);
+            }
+            written = true;
+        } finally {
+            if (!written) {
+                //noinspection ResultOfMethodCallIgnored
+                temp.delete();
+            }
+        }
+        replaceOrThrow(temp, file);
+    }
+
+    /**
+     * 在文件所在目录创建临时文件，用于写入后重命名覆盖目标文件
+     *
+     * @param file 目标文件
+     * @return 临时文件
+     * @throws IOException 创建失败
+     */
+    static File createTempSibling(File file) throws IOException {
+        final String name = file.getName();
+        return File.createTempFile(
+                "." + (name.length() > 64 ? name.substring(0, 64) : name) + "-",
+                ".tmp", file.getAbsoluteFile().getParentFile());
+    }
+
+    /**
+     * 重命名临时文件覆盖目标文件，失败时删除临时文件
+     *
+     * @param temp 临时文件
+     * @param file 目标文件
+     * @throws IOException 重命名失败
+     */
+    static void replaceOrThrow(File temp, File file) throws IOException {
+        if (!temp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            throw new IOException("Cannot rename " + temp + " to " + file);
+        }
+    }
+
+    /**
+     * 原子写入字节内容
+     *
+     * @param file    文件
+     * @param content 字节内容
+     * @param sync    是否在重命名前将数据同步到存储设备
+     * @return 是否成功
+     */
+    public static boolean writeBytesAtomic(File file, byte[] content, boolean sync) {
+        if (content == null)
+            return file.delete();
+        try {
+            writeAtomicOrThrow(file, ByteBuffer.wrap(content), sync);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * 原子写入字符串内容
+     * 直接编码为字节缓冲区后一次写入
+     *
+     * @param file    文件
+     * @param content 字符串
+     * @param cs      字符集
+     * @param sync    是否在重命名前将数据同步到存储设备
+     * @return 是否成功
+     */
+    public static boolean writeStringAtomic(File file, String content, Charset cs, boolean sync) {
+        if (content == null)
+            return file.delete();
+        try {
+            final ByteBuffer bytes = cs.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                    .encode(CharBuffer.wrap(content));
+            writeAtomicOrThrow(file, bytes, sync);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * 读取字节内容
+     * 按文件长度一次性分配数组并读取
      *
      * @param file 文件
-     * @return 字符串
+     * @return 字节内容
+     * @throws IOException 输入输出异常
      */
-    public static String readString(File file) {
+    public static byte[] readBytesOrThrow(File file) throws IOException {
+        try (final FileInputStream input = new FileInputStream(file)) {
+            final long length = input.getChannel().size();
+            if (length > MAX_ARRAY_LENGTH) {
+                throw new IOException("File is too large to read into an array.");
+            }
+            final byte[] bytes = new byte[(int) length];
+            int offset = 0;
+            int count;
+            while (offset < bytes.length &&
+                    (count = input.read(bytes, offset, bytes.length - offset)) > 0) {
+                offset += count;
+            }
+            if (offset < bytes.length) {
+                // 文件被截断
+                return Arrays.copyOf(bytes, offset);
+            }
+            final int next = input.read();
+            if (next == -1) {
+                return bytes;
+            }
+            // 文件长度未知（如 /proc 下文件）或已增长
+            final ByteArrayOutputStream output =
+                    new ByteArrayOutputStream(Math.max(32, bytes.length * 2));
+            output.write(bytes);
+            output.write(next);
+            StreamUtils.copy(input, output);
+            return output.toByteArray();
+        }
+    }
+
+    /**
+     * 读取字节内容
+     *
+     * @param file 文件
+     * @return 字节内容
+     */
+    @Nullable
+    public static byte[] readBytes(File file) {
         if (file == null || !file.exists() || !file.isFile()) {
             return null;
         }
-        try (final BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            final StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line).append("\n");
-            }
-            return sb.toString();
+        try {
+            return readBytesOrThrow(file);
         } catch (Exception e) {
             return null;
         }
     }
 
+    private static String decode(byte[] bytes, Charset cs) throws CharacterCodingException {
+        final CharsetDecoder decoder = cs.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        final CharBuffer chars = CharBuffer.allocate(
+                (int) Math.ceil(bytes.length * (double) decoder.maxCharsPerByte()));
+        CoderResult result = decoder.decode(ByteBuffer.wrap(bytes), chars, true);
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+        result = decoder.flush(chars);
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+        return new String(chars.array(), 0, chars.position());
+    }
+
+    /**
+     * 读取字符串内容
+     * 内容按原样返回，不改变换行符
+     *
+     * @param file 文件
+     * @return 字符串
+     */
+    public static String readString(File file) {
+        return readString(file, Charset.defaultCharset());
+    }
+
     /**
      * 读取字符串内容
+     * 一次性读取字节并直接解码，内容按原样返回，不改变换行符
      *
      * @param file 文件
      * @param cs   字符集
      * @return 字符串
      */
     public static String readString(File file, Charset cs) {
-        if (file == null || !file.exists() || !file.isFile()) {
+        final byte[] bytes = readBytes(file);
+        if (bytes == null) {
             return null;
         }
-        //noinspection IOStreamConstructor
-        try (final BufferedReader reader = new BufferedReader(
-                new InputStreamReader(new FileInputStream(file), cs))) {
-            final StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line).append("\n");
-            }
-            return sb.toString();
+        try {
+            return decode(bytes, cs);
         } catch (Exception e) {
             return null;
         }
     }
 
 
+    /**
+     * 以只读方式映射文件
+     * 由页缓存直接提供数据，不产生堆内复制，映射在文件关闭后依然有效
+     *
+     * @param file 文件，不能超过2GB
+     * @return 只读映射
+     * @throws IOException 输入输出异常，文件超过2GB时抛出
+     */
+    public static MappedByteBuffer mapOrThrow(File file) throws IOException {
+        try (final FileInputStream input = new FileInputStream(file)) {
+            final FileChannel channel = input.getChannel();
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to map, use mapWindowsOrThrow instead.");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * 以只读方式分段映射文件
+     * 适用于超过2GB的文件
+     *
+     * @param file       文件
+     * @param windowSize 每段映射的大小
+     * @return 按顺序排列的只读映射，空文件返回空列表
+     * @throws IOException 输入输出异常
+     */
+    public static List<MappedByteBuffer> mapWindowsOrThrow(File file, int windowSize)
+            throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive.");
+        }
+        try (final FileInputStream input = new FileInputStream(file)) {
+            final FileChannel channel = input.getChannel();
+            final long size = channel.size();
+            final List<MappedByteBuffer> windows =
+                    new ArrayList<>((int) ((size + windowSize - 1) / windowSize));
+            for (long position = 0; position < size; position += windowSize) {
+                windows.add(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(windowSize, size - position)));
+            }
+            return windows;
+        }
+    }
+
     /**
      * 复制文件夹
      *
@@ -377,6 +862,69 @@ public class FileUtils {
         return true;
     }
 
+    /**
+     * 判断是否为符号链接
+     *
+     * @param file 文件
+     * @return 为符号链接时返回true，无法获取文件信息时返回false
+     */
+    @RequiresApi(Build.VERSION_CODES.LOLLIPOP)
+    public static boolean isSymbolicLink(File file) {
+        try {
+            return OsConstants.S_ISLNK(Os.lstat(file.getPath()).st_mode);
+        } catch (ErrnoException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 并行复制文件夹
+     * 已存在的目标文件不会被覆盖，复制失败时不会中断其他文件的复制，不进入符号链接指向的文件夹
+     *
+     * @param source 源文件夹
+     * @param target 目标文件夹（已创建）
+     * @param signal 取消信号
+     * @return 复制报告
+     */
+    @RequiresApi(Build.VERSION_CODES.LOLLIPOP)
+    public static DirectoryCopier.Report copyDirectoryParallel(File source, File target,
+                                                               @Nullable CancellationSignal signal) {
+        return DirectoryCopier.copy(source, target, signal);
+    }
+
+    /**
+     * 同步文件夹
+     * 仅复制新增或变化的文件，复制后目标文件的修改时间与源文件一致，更新时先写入临时文件再重命名覆盖
+     *
+     * @param source 源文件夹
+     * @param target 目标文件夹
+     * @param flags  {@link DirectorySynchronizer#FLAG_COMPARE_DIGEST}、
+     *               {@link DirectorySynchronizer#FLAG_DELETE_ORPHANS}、
+     *               {@link DirectorySynchronizer#FLAG_DRY_RUN}
+     * @param signal 取消信号
+     * @return 变化集合
+     */
+    public static DirectorySynchronizer.ChangeSet syncDirectory(File source, File target, int flags,
+                                                                @Nullable CancellationSignal signal) {
+        return DirectorySynchronizer.sync(source, target, flags, signal);
+    }
+
+    /**
+     * 统计文件夹大小
+     * 使用共享的{@link DirectorySizeScanner}，未变化的子文件夹直接使用缓存
+     *
+     * @param directory 文件夹
+     * @param callback  回调，在工作线程中调用
+     * @param signal    取消信号
+     * @return 统计结果
+     */
+    @RequiresApi(Build.VERSION_CODES.LOLLIPOP)
+    public static DirectorySizeScanner.Result scanDirectorySize(
+            File directory, @Nullable DirectorySizeScanner.Callback callback,
+            @Nullable CancellationSignal signal) {
+        return DirectorySizeScanner.getInstance().scan(directory, callback, signal);
+    }
+
     /**
      * 删除文件及文件夹
      *
@@ -384,29 +932,19 @@ public class FileUtils {
      * @return 删除成功时返回true
      */
     public static boolean delete(File file) {
-        if (file == null) {
-            return true;
-        }
-        if (!file.exists()) {
-            return true;
-        }
-        if (file.isFile()) {
-            return file.delete();
-        }
-        if (file.isDirectory()) {
-            final File[] children = file.listFiles();
-            if (children == null || children.length <= 0) {
-                return file.delete();
-            }
-            boolean deleted = true;
-            for (File child : children) {
-                if (!delete(child)) {
-                    deleted = false;
-                }
-            }
-            return deleted && file.delete();
-        }
-        return false;
+        return FileDeleter.delete(file, null).isSuccessful();
+    }
+
+    /**
+     * 并行删除文件及文件夹
+     *
+     * @param file   文件及文件夹
+     * @param signal 取消信号
+     * @return 删除结果
+     */
+    public static FileDeleter.Result deleteParallel(File file,
+                                                    @Nullable CancellationSignal signal) {
+        return FileDeleter.delete(file, Runtime.getRuntime().availableProcessors(), signal);
     }
 
     /**
@@ -416,26 +954,19 @@ public class FileUtils {
      * @return 清空文件夹
      */
     public static boolean clearDirectory(File file) {
-        if (file == null) {
-            return false;
-        }
-        if (!file.exists()) {
-            return false;
-        }
-        if (file.isDirectory()) {
-            final File[] children = file.listFiles();
-            if (children == null || children.length <= 0) {
-                return true;
-            }
-            boolean clear = true;
-            for (File child : children) {
-                if (!delete(child)) {
-                    clear = false;
-                }
-            }
-            return clear;
-        }
-        return false;
+        return FileDeleter.clear(file, 1, null).isSuccessful();
+    }
+
+    /**
+     * 并行清空文件夹
+     *
+     * @param file   文件夹
+     * @param signal 取消信号
+     * @return 删除结果
+     */
+    public static FileDeleter.Result clearDirectoryParallel(File file,
+                                                            @Nullable CancellationSignal signal) {
+        return FileDeleter.clear(file, Runtime.getRuntime().availableProcessors(), signal);
     }
 
     /**
@@ -451,28 +982,7 @@ public class FileUtils {
         if (file == null || !file.exists()) {
             return null;
         }
-        //noinspection IOStreamConstructor
-        try (final InputStream input = new FileInputStream(file)) {
-            final MessageDigest md = MessageDigest.getInstance("MD5");
-            int len;
-            final byte[] buffer = new byte[1024];
-            while ((len = input.read(buffer, 0, buffer.length)) != -1) {
-                md.update(buffer, 0, len);
-            }
-            final byte[] bytes = md.digest();
-            final String str = new BigInteger(1, bytes).toString(16);
-            final StringBuilder builder = new StringBuilder();
-            if (str.length() < minLength) {
-                final int number = minLength - str.length();
-                for (int i = 0; i < number; i++) {
-                    builder.append("0");
-                }
-            }
-            builder.append(str);
-            return builder.toString();
-        } catch (Exception e) {
-            return null;
-        }
+        return MessageDigestUtils.getMD5(file, minLength);
     }
 
     /**
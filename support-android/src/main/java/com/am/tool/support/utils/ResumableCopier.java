@@ -0,0 +1,318 @@
+/*
+ * Copyright (C) 2026 AlexMofer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.am.tool.support.utils;
+
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 可续传复制器
+ * 复制过程中定期将目标文件同步到存储设备并原子写入检查点（源标识、大小、修改时间、已复制字节数及已复制部分的摘要），
+ * 中断后再次复制时校验目标文件已复制部分，一致则从断点继续，否则从头开始；复制完成后删除检查点
+ * Created by Alex on 2026/10/17.
+ */
+public class ResumableCopier {
+
+    private static final int MAGIC = 0x52435031;// RCP1
+    private static final String DIGEST_ALGORITHM = "MD5";
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    private static final long CHECKPOINT_INTERVAL = 32 * 1024 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private final FileChannel mInput;
+    private final FileChannel mOutput;
+    private final FileChannel mOutputReader;
+    private final String mSourceId;
+    private final long mLength;
+    private final long mLastModified;
+    private final File mCheckpoint;
+    private final MessageDigest mDigest;
+    @Nullable
+    private byte[] mExpected;
+    private long mCopied;
+
+    private ResumableCopier(FileChannel input, FileChannel output, FileChannel outputReader,
+                            String sourceId, long length, long lastModified, File checkpoint) {
+        mInput = input;
+        mOutput = output;
+        mOutputReader = outputReader;
+        mSourceId = sourceId;
+        mLength = length;
+        mLastModified = lastModified;
+        mCheckpoint = checkpoint;
+        try {
+            mDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 获取默认检查点文件
+     *
+     * @param target 目标文件
+     * @return 检查点文件
+     */
+    public static File getCheckpoint(File target) {
+        return new File(target.getPath() + CHECKPOINT_SUFFIX);
+    }
+
+    /**
+     * 复制文件
+     *
+     * @param source     源文件
+     * @param target     目标文件
+     * @param checkpoint 检查点文件，为null时使用{@link #getCheckpoint(File)}
+     * @param listener   进度监听
+     * @param signal     取消信号，取消时保存检查点并抛出{@link OperationCanceledException}
+     * @return 复制结果
+     * @throws IOException 输入输出异常
+     */
+    public static Result copy(File source, File target, @Nullable File checkpoint,
+                              @Nullable StreamUtils.ProgressListener listener,
+                              @Nullable CancellationSignal signal) throws IOException {
+        try (final FileInputStream input = new FileInputStream(source);
+             final RandomAccessFile output = new RandomAccessFile(target, "rw")) {
+            return copy(input.getChannel(), output.getChannel(), output.getChannel(),
+                    source.getAbsolutePath(), input.getChannel().size(), source.lastModified(),
+                    checkpoint == null ? getCheckpoint(target) : checkpoint, listener, signal);
+        }
+    }
+
+    /**
+     * 复制
+     * 输入与输出均须支持定位读写
+     *
+     * @param input        输入
+     * @param output       输出，已复制部分由检查点校验，校验失败时截断后从头复制
+     * @param outputReader 读取输出已复制部分的通道，与输出为同一文件，输出可读时可传入输出
+     * @param sourceId     源标识
+     * @param length       源长度
+     * @param lastModified 源修改时间，未知时传0
+     * @param checkpoint   检查点文件
+     * @param listener     进度监听
+     * @param signal       取消信号
+     * @return 复制结果
+     * @throws IOException 输入输出异常
+     */
+    static Result copy(FileChannel input, FileChannel output, FileChannel outputReader,
+                       String sourceId, long length, long lastModified, File checkpoint,
+                       @Nullable StreamUtils.ProgressListener listener,
+                       @Nullable CancellationSignal signal) throws IOException {
+        final ResumableCopier copier = new ResumableCopier(input, output, outputReader, sourceId,
+                length, lastModified, checkpoint);
+        final long resumed = copier.resume(signal);
+        copier.copy(listener, signal);
+        //noinspection ResultOfMethodCallIgnored
+        checkpoint.delete();
+        return new Result(copier.mCopied, resumed);
+    }
+
+    private long resume(@Nullable CancellationSignal signal) throws IOException {
+        final long offset = readCheckpoint();
+        if (offset > 0 && mExpected != null && mOutput.size() >= offset) {
+            // 读取已复制部分恢复摘要状态，同时校验
+            if (update(offset, signal) && MessageDigest.isEqual(mExpected, digestPrefix())) {
+                mCopied = offset;
+                mOutput.truncate(offset);
+                return offset;
+            }
+        }
+        mDigest.reset();
+        mCopied = 0;
+        mOutput.truncate(0);
+        return 0;
+    }
+
+    private boolean update(long length, @Nullable CancellationSignal signal) throws IOException {
+        final byte[] array = BufferPool.obtain(length);
+        final ByteBuffer buffer = ByteBuffer.wrap(array);
+        try {
+            long position = 0;
+            while (position < length) {
+                if (signal != null) {
+                    signal.throwIfCanceled();
+                }
+                buffer.clear();
+                buffer.limit((int) Math.min(array.length, length - position));
+                final int count = mOutputReader.read(buffer, position);
+                if (count < 0) {
+                    return false;
+                }
+                mDigest.update(array, 0, count);
+                position += count;
+            }
+            return true;
+        } finally {
+            BufferPool.recycle(array);
+        }
+    }
+
+    private void copy(@Nullable StreamUtils.ProgressListener listener,
+                      @Nullable CancellationSignal signal) throws IOException {
+        final byte[] array = BufferPool.obtain(mLength);
+        final ByteBuffer buffer = ByteBuffer.wrap(array);
+        long checkpoint = mCopied;
+        try {
+            while (mCopied < mLength) {
+                if (signal != null) {
+                    signal.throwIfCanceled();
+                }
+                buffer.clear();
+                buffer.limit((int) Math.min(array.length, mLength - mCopied));
+                final int count = mInput.read(buffer, mCopied);
+                if (count < 0) {
+                    throw new IOException("Unexpected end of source: " + mSourceId);
+                }
+                buffer.flip();
+                long position = mCopied;
+                while (buffer.hasRemaining()) {
+                    position += mOutput.write(buffer, position);
+                }
+                mDigest.update(array, 0, count);
+                mCopied += count;
+                if (listener != null) {
+                    listener.onProgress(mCopied, mLength);
+                }
+                if (mCopied - checkpoint >= CHECKPOINT_INTERVAL && mCopied < mLength) {
+                    writeCheckpoint();
+                    checkpoint = mCopied;
+                }
+            }
+            mOutput.force(true);
+        } catch (OperationCanceledException | IOException e) {
+            if (mCopied > checkpoint) {
+                try {
+                    writeCheckpoint();
+                } catch (Throwable t) {
+                    // 存储设备不可用时保留上一个检查点
+                }
+            }
+            throw e;
+        } finally {
+            BufferPool.recycle(array);
+        }
+    }
+
+    private byte[] digestPrefix() {
+        try {
+            return ((MessageDigest) mDigest.clone()).digest();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void writeCheckpoint() throws IOException {
+        // 先同步数据，保证检查点记录的部分已写入存储设备
+        mOutput.force(false);
+        final byte[] id = mSourceId.getBytes(UTF_8);
+        final byte[] digest = digestPrefix();
+        final ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + id.length + 8 * 3 + 4 + digest.length);
+        buffer.putInt(MAGIC)
+                .putInt(id.length).put(id)
+                .putLong(mLength)
+                .putLong(mLastModified)
+                .putLong(mCopied)
+                .putInt(digest.length).put(digest)
+                .flip();
+        FileUtils.writeAtomicOrThrow(mCheckpoint, buffer, true);
+    }
+
+    /**
+     * 读取检查点，源未变化时暂存检查点中的摘要
+     *
+     * @return 已复制字节数，检查点无效时返回0
+     */
+    private long readCheckpoint() {
+        if (!mCheckpoint.isFile()) {
+            return 0;
+        }
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(FileUtils.readBytesOrThrow(mCheckpoint));
+            if (buffer.getInt() != MAGIC) {
+                return 0;
+            }
+            final byte[] id = new byte[buffer.getInt()];
+            buffer.get(id);
+            final long length = buffer.getLong();
+            final long lastModified = buffer.getLong();
+            final long copied = buffer.getLong();
+            final byte[] digest = new byte[buffer.getInt()];
+            buffer.get(digest);
+            if (!mSourceId.equals(new String(id, UTF_8)) || length != mLength ||
+                    lastModified != mLastModified || copied <= 0 || copied > mLength) {
+                return 0;
+            }
+            mExpected = digest;
+            return copied;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException |
+                 NegativeArraySizeException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 复制结果
+     */
+    public static class Result {
+        private final long mLength;
+        private final long mResumedFrom;
+
+        Result(long length, long resumedFrom) {
+            mLength = length;
+            mResumedFrom = resumedFrom;
+        }
+
+        /**
+         * 获取目标文件长度
+         *
+         * @return 目标文件长度
+         */
+        public long getLength() {
+            return mLength;
+        }
+
+        /**
+         * 获取续传位置
+         *
+         * @return 续传位置，从头复制时为0
+         */
+        public long getResumedFrom() {
+            return mResumedFrom;
+        }
+
+        /**
+         * 判断是否为续传
+         *
+         * @return 从检查点继续复制时返回true
+         */
+        public boolean isResumed() {
+            return mResumedFrom > 0;
+        }
+    }
+}
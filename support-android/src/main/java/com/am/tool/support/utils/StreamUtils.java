@@ -15,9 +15,26 @@
  */
 package com.am.tool.support.utils;
 
+import android.os.CancellationSignal;
+
+import androidx.annotation.Nullable;
+
+import com.am.tool.support.other.ArchTaskExecutor;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 流工具
@@ -25,6 +42,10 @@ import java.io.OutputStream;
  */
 public class StreamUtils {
 
+    private static final long TRANSFER_SIZE = 8 * 1024 * 1024;
+    private static final int PIPELINE_BUFFER_COUNT = 4;
+    private static final long PIPELINE_POLL_TIMEOUT = 100;
+
     private StreamUtils() {
         //no instance
     }
@@ -37,18 +58,356 @@ public class StreamUtils {
      * @throws IOException 读写错误
      */
     public static void copy(InputStream input, OutputStream output) throws IOException {
-        final byte[] buffer = new byte[1024];
-        int count;
-        while ((count = input.read(buffer)) != -1) {
-            if (count == 0) {
-                count = input.read();
-                if (count < 0)
+        copy(input, output, -1, null, null);
+    }
+
+    /**
+     * 复制
+     * 缓冲区从{@link BufferPool}中获取，仅在复制结束时刷新输出
+     *
+     * @param input    输入
+     * @param output   输出
+     * @param length   输入长度，未知时传-1，用于选择缓冲区大小
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 读写错误
+     */
+    public static long copy(InputStream input, OutputStream output, long length,
+                            @Nullable ProgressListener listener,
+                            @Nullable CancellationSignal signal) throws IOException {
+        return copy(input, output, length, null, listener, signal);
+    }
+
+    /**
+     * 复制
+     * 写入的同时更新信息摘要，复制完成后即可获取源数据的摘要，无需再次读取
+     *
+     * @param input    输入
+     * @param output   输出
+     * @param length   输入长度，未知时传-1，用于选择缓冲区大小
+     * @param digests  信息摘要，复制结束后由调用方完成计算
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 读写错误
+     */
+    public static long copy(InputStream input, OutputStream output, long length,
+                            @Nullable MessageDigest[] digests,
+                            @Nullable ProgressListener listener,
+                            @Nullable CancellationSignal signal) throws IOException {
+        final byte[] buffer = BufferPool.obtain(length);
+        try {
+            long copied = 0;
+            int count;
+            while (true) {
+                if (signal != null) {
+                    signal.throwIfCanceled();
+                }
+                count = input.read(buffer);
+                if (count == -1) {
                     break;
-                output.write(count);
-                continue;
+                }
+                if (count == 0) {
+                    count = input.read();
+                    if (count < 0)
+                        break;
+                    output.write(count);
+                    if (digests != null) {
+                        for (MessageDigest digest : digests) {
+                            digest.update((byte) count);
+                        }
+                    }
+                    copied++;
+                    continue;
+                }
+                output.write(buffer, 0, count);
+                if (digests != null) {
+                    for (MessageDigest digest : digests) {
+                        digest.update(buffer, 0, count);
+                    }
+                }
+                copied += count;
+                if (listener != null) {
+                    listener.onProgress(copied, length);
+                }
             }
-            output.write(buffer, 0, count);
             output.flush();
+            return copied;
+        } finally {
+            BufferPool.recycle(buffer);
+        }
+    }
+
+    /**
+     * 流水线复制
+     * 读取在{@link ArchTaskExecutor#getDiskIOExecutor()}中进行，与写入同时进行，
+     * 适用于读写延迟相近的慢速介质（SD卡、USB OTG、内容提供者）
+     *
+     * @param input    输入
+     * @param output   输出
+     * @param length   输入长度，未知时传-1，用于选择缓冲区大小
+     * @param listener 进度监听，在调用线程中回调
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 读写错误
+     */
+    public static long copyPipelined(InputStream input, OutputStream output, long length,
+                                     @Nullable ProgressListener listener,
+                                     @Nullable CancellationSignal signal) throws IOException {
+        return copyPipelined(input, output, length, PIPELINE_BUFFER_COUNT, null, listener, signal);
+    }
+
+    /**
+     * 流水线复制
+     * 读取线程与写入线程（调用线程）通过一组可复用的缓冲区交换数据，缓冲区耗尽时读取线程等待，
+     * 任意一方出错时另一方随即停止并抛出该错误；返回或抛出前等待读取线程结束（取消或写入出错时需等待正在进行的一次读取返回），
+     * 之后调用方可安全关闭输入，等待期间线程被中断时不再等待；
+     * 读取任务未能及时开始时（线程池已满），改为在调用线程中顺序复制
+     *
+     * @param input       输入
+     * @param output      输出
+     * @param length      输入长度，未知时传-1，用于选择缓冲区大小
+     * @param bufferCount 缓冲区数量，至少为2
+     * @param executor    执行读取的线程池，为null时使用{@link ArchTaskExecutor#getDiskIOExecutor()}
+     * @param listener    进度监听，在调用线程中回调
+     * @param signal      取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 读写错误
+     */
+    public static long copyPipelined(InputStream input, OutputStream output, long length,
+                                     int bufferCount, @Nullable Executor executor,
+                                     @Nullable ProgressListener listener,
+                                     @Nullable CancellationSignal signal) throws IOException {
+        final Pipeline pipeline = new Pipeline(input, length, Math.max(2, bufferCount));
+        try {
+            (executor == null ? ArchTaskExecutor.getInstance().getDiskIOExecutor() : executor)
+                    .execute(pipeline);
+        } catch (RejectedExecutionException e) {
+            // 读取任务不会开始，由写入方在调用线程中复制
+        }
+        return pipeline.write(output, length, listener, signal);
+    }
+
+    /**
+     * 通道传输
+     * 通过{@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+     * 由内核直接完成复制（sendfile/copy_file_range），不经过用户空间缓冲区，
+     * 分段循环传输以支持超过2GB的文件及部分传输；传输到开始时的文件大小后继续读取到末尾，
+     * 以包含大小为0的伪文件（如/proc下的文件）的内容及传输过程中追加的数据
+     *
+     * @param input    输入（需为普通文件，从当前位置开始传输）
+     * @param output   输出（从当前位置开始写入）
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 传输的字节数
+     * @throws IOException 读写错误
+     */
+    public static long transfer(FileChannel input, FileChannel output,
+                                @Nullable ProgressListener listener,
+                                @Nullable CancellationSignal signal) throws IOException {
+        final long start = input.position();
+        final long size = input.size();
+        final long total = size > start ? size - start : -1;
+        long position = start;
+        while (position < size) {
+            if (signal != null) {
+                signal.throwIfCanceled();
+            }
+            final long count = input.transferTo(position,
+                    Math.min(size - position, TRANSFER_SIZE), output);
+            if (count <= 0) {
+                // 文件被截断
+                break;
+            }
+            position += count;
+            if (listener != null) {
+                listener.onProgress(position - start, total);
+            }
+        }
+        input.position(position);
+        final byte[] array = BufferPool.obtain(-1);
+        final ByteBuffer buffer = ByteBuffer.wrap(array);
+        try {
+            while (true) {
+                if (signal != null) {
+                    signal.throwIfCanceled();
+                }
+                buffer.clear();
+                final int count = input.read(buffer);
+                if (count == -1) {
+                    break;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    output.write(buffer);
+                }
+                position += count;
+                if (listener != null) {
+                    listener.onProgress(position - start, -1);
+                }
+            }
+        } finally {
+            BufferPool.recycle(array);
+        }
+        return position - start;
+    }
+
+    /**
+     * 进度监听
+     */
+    public interface ProgressListener {
+
+        /**
+         * 进度变化
+         *
+         * @param copied 已复制的字节数
+         * @param total  总字节数，未知时为-1
+         */
+        void onProgress(long copied, long total);
+    }
+
+    private static class Chunk {
+        final byte[] mBuffer;
+        int mCount;
+
+        Chunk(byte[] buffer) {
+            mBuffer = buffer;
+        }
+    }
+
+    private static class Pipeline implements Runnable {
+
+        private static final Chunk END = new Chunk(new byte[0]);
+        private final InputStream mInput;
+        private final Chunk[] mChunks;
+        private final ArrayBlockingQueue<Chunk> mFree;
+        private final ArrayBlockingQueue<Chunk> mFilled;
+        private final AtomicBoolean mAborted = new AtomicBoolean();
+        private final AtomicReference<Throwable> mError = new AtomicReference<>();
+        private final CountDownLatch mReaderDone = new CountDownLatch(1);
+        // 读取任务开始时或写入方放弃等待读取任务时设置，两者只有一方能成功
+        private final AtomicBoolean mStarted = new AtomicBoolean();
+
+        Pipeline(InputStream input, long length, int count) {
+            mInput = input;
+            mChunks = new Chunk[count];
+            mFree = new ArrayBlockingQueue<>(count);
+            // 额外容纳结束标记
+            mFilled = new ArrayBlockingQueue<>(count + 1);
+            for (int i = 0; i < count; i++) {
+                mChunks[i] = new Chunk(BufferPool.obtain(length));
+                mFree.add(mChunks[i]);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (!mStarted.compareAndSet(false, true)) {
+                // 写入方已在调用线程中完成复制
+                return;
+            }
+            try {
+                while (!mAborted.get()) {
+                    final Chunk chunk = mFree.take();
+                    if (chunk == END || mAborted.get()) {
+                        break;
+                    }
+                    int count = mInput.read(chunk.mBuffer);
+                    if (count == -1) {
+                        break;
+                    }
+                    if (count == 0) {
+                        final int b = mInput.read();
+                        if (b < 0) {
+                            break;
+                        }
+                        chunk.mBuffer[0] = (byte) b;
+                        count = 1;
+                    }
+                    chunk.mCount = count;
+                    mFilled.put(chunk);
+                }
+            } catch (Throwable t) {
+                mError.set(t);
+            } finally {
+                mFilled.offer(END);
+                mReaderDone.countDown();
+            }
+        }
+
+        private boolean claimReader() {
+            if (mStarted.compareAndSet(false, true)) {
+                // 读取任务未开始，之后也不会再读取
+                mReaderDone.countDown();
+                return true;
+            }
+            return false;
+        }
+
+        private boolean awaitReader() {
+            claimReader();
+            try {
+                mReaderDone.await();
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        long write(OutputStream output, long length, @Nullable ProgressListener listener,
+                   @Nullable CancellationSignal signal) throws IOException {
+            try {
+                long copied = 0;
+                while (true) {
+                    if (signal != null) {
+                        signal.throwIfCanceled();
+                    }
+                    final Chunk chunk = mFilled.poll(PIPELINE_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                    if (chunk == null) {
+                        if (claimReader()) {
+                            // 读取任务仍在排队（线程池已满或调用线程即在该线程池中），改为在调用线程中复制
+                            return copy(mInput, output, length, listener, signal);
+                        }
+                        continue;
+                    }
+                    if (chunk == END) {
+                        break;
+                    }
+                    output.write(chunk.mBuffer, 0, chunk.mCount);
+                    copied += chunk.mCount;
+                    mFree.put(chunk);
+                    if (listener != null) {
+                        listener.onProgress(copied, length);
+                    }
+                }
+                final Throwable error = mError.get();
+                if (error instanceof IOException) {
+                    throw (IOException) error;
+                } else if (error instanceof RuntimeException) {
+                    throw (RuntimeException) error;
+                } else if (error instanceof Error) {
+                    throw (Error) error;
+                } else if (error != null) {
+                    throw new IOException(error);
+                }
+                output.flush();
+                return copied;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } finally {
+                // 唤醒等待缓冲区的读取线程，并等待其结束，避免调用方关闭输入后读取线程仍在读取；
+                // 等待被中断时不再等待，缓冲区可能仍在使用，不回收
+                mAborted.set(true);
+                mFree.offer(END);
+                if (awaitReader()) {
+                    for (Chunk chunk : mChunks) {
+                        BufferPool.recycle(chunk.mBuffer);
+                    }
+                }
+            }
         }
     }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2026 AlexMofer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.am.tool.support.utils;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Uri 元数据
+ * 由{@link UriUtils#getMetadata}一次查询获得
+ * Created by Alex on 2026/10/17.
+ */
+public class UriMetadata {
+
+    private final Uri mUri;
+    @Nullable
+    private final String mName;
+    private final long mLength;
+    private final long mLastModified;
+    @Nullable
+    private final String mMimeType;
+
+    UriMetadata(Uri uri, @Nullable String name, long length, long lastModified,
+                @Nullable String mimeType) {
+        mUri = uri;
+        mName = name;
+        mLength = length;
+        mLastModified = lastModified;
+        mMimeType = mimeType;
+    }
+
+    /**
+     * 获取链接
+     *
+     * @return 链接
+     */
+    public Uri getUri() {
+        return mUri;
+    }
+
+    /**
+     * 获取名称
+     *
+     * @return 名称
+     */
+    @Nullable
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * 获取文件长度
+     *
+     * @return 文件长度，未知时为0
+     */
+    public long getLength() {
+        return mLength;
+    }
+
+    /**
+     * 获取最后编辑时间
+     *
+     * @return 最后编辑时间（毫秒），未知时为0
+     */
+    public long getLastModified() {
+        return mLastModified;
+    }
+
+    /**
+     * 获取MIME类型
+     *
+     * @return MIME类型
+     */
+    @Nullable
+    public String getMimeType() {
+        return mMimeType;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "UriMetadata{" +
+                "uri=" + mUri +
+                ", name='" + mName + '\'' +
+                ", length=" + mLength +
+                ", lastModified=" + mLastModified +
+                ", mimeType='" + mMimeType + '\'' +
+                '}';
+    }
+}
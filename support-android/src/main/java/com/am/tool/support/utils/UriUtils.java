@@ -15,20 +15,36 @@
  */
 package com.am.tool.support.utils;
 
+import android.content.ContentResolver;
 import android.content.Context;
 import android.database.Cursor;
 import android.net.Uri;
 import android.os.Build;
+import android.os.CancellationSignal;
 import android.os.ParcelFileDescriptor;
 import android.provider.DocumentsContract;
+import android.provider.MediaStore;
+import android.provider.OpenableColumns;
+import android.text.TextUtils;
+import android.util.LruCache;
 
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Uri 工具
@@ -36,6 +52,311 @@ import java.util.List;
  */
 public class UriUtils {
 
+    private static final int METADATA_CACHE_SIZE = 512;
+    private static final String[] PROJECTION_DOCUMENT = {
+            OpenableColumns.DISPLAY_NAME,
+            OpenableColumns.SIZE,
+            DocumentsContract.Document.COLUMN_LAST_MODIFIED,
+            DocumentsContract.Document.COLUMN_MIME_TYPE};
+    private static final String[] PROJECTION_MEDIA = {
+            MediaStore.MediaColumns.DISPLAY_NAME,
+            MediaStore.MediaColumns.SIZE,
+            MediaStore.MediaColumns.DATE_MODIFIED,
+            MediaStore.MediaColumns.MIME_TYPE};
+    private static final String[] PROJECTION_OPENABLE = {
+            OpenableColumns.DISPLAY_NAME,
+            OpenableColumns.SIZE};
+    private static final String[] PROJECTION_MEDIA_BATCH = {
+            MediaStore.MediaColumns.DISPLAY_NAME,
+            MediaStore.MediaColumns.SIZE,
+            MediaStore.MediaColumns.DATE_MODIFIED,
+            MediaStore.MediaColumns.MIME_TYPE,
+            MediaStore.MediaColumns._ID};
+    // SQLite 默认最多支持999个参数
+    private static final int BATCH_SIZE = 500;
+    private static final LruCache<Uri, UriMetadata> METADATA_CACHE =
+            new LruCache<>(METADATA_CACHE_SIZE);
+
+    private static ParcelFileDescriptor openFileDescriptor(ContentResolver resolver, Uri uri,
+                                                           String mode) throws IOException {
+        final ParcelFileDescriptor descriptor = resolver.openFileDescriptor(uri, mode);
+        if (descriptor == null) {
+            throw new FileNotFoundException("Cannot open " + uri);
+        }
+        return descriptor;
+    }
+
+    private static long copy(FileInputStream input, boolean inputRegular,
+                             FileOutputStream output, boolean outputRegular, long length,
+                             @Nullable StreamUtils.ProgressListener listener,
+                             @Nullable CancellationSignal signal) throws IOException {
+        if (inputRegular && outputRegular) {
+            // 均为普通文件时直接在通道间传输
+            return StreamUtils.transfer(input.getChannel(), output.getChannel(), listener, signal);
+        }
+        // 管道或套接字
+        return StreamUtils.copy(input, output, length, listener, signal);
+    }
+
+    /**
+     * 复制
+     * 两端均为普通文件时通过文件通道传输，否则（管道、套接字）使用流复制
+     *
+     * @param context  Context
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 读写错误
+     */
+    public static long copyOrThrow(Context context, Uri source, Uri target,
+                                   @Nullable StreamUtils.ProgressListener listener,
+                                   @Nullable CancellationSignal signal) throws IOException {
+        final ContentResolver resolver = context.getContentResolver();
+        try (final ParcelFileDescriptor input = openFileDescriptor(resolver, source, "r");
+             final ParcelFileDescriptor output = openFileDescriptor(resolver, target, "w")) {
+            // 流无需关闭，由 ParcelFileDescriptor 关闭
+            return copy(new FileInputStream(input.getFileDescriptor()), input.getStatSize() >= 0,
+                    new FileOutputStream(output.getFileDescriptor()), output.getStatSize() >= 0,
+                    input.getStatSize(), listener, signal);
+        } finally {
+            // 目标已改变，缓存的长度及修改时间失效
+            invalidateMetadata(target);
+        }
+    }
+
+    /**
+     * 复制
+     * 源为普通文件时通过文件通道传输，否则（管道、套接字）使用流复制
+     *
+     * @param context  Context
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 读写错误
+     */
+    public static long copyOrThrow(Context context, Uri source, File target,
+                                   @Nullable StreamUtils.ProgressListener listener,
+                                   @Nullable CancellationSignal signal) throws IOException {
+        try (final ParcelFileDescriptor input =
+                     openFileDescriptor(context.getContentResolver(), source, "r");
+             final FileOutputStream output = new FileOutputStream(target)) {
+            return copy(new FileInputStream(input.getFileDescriptor()), input.getStatSize() >= 0,
+                    output, true, input.getStatSize(), listener, signal);
+        }
+    }
+
+    /**
+     * 复制
+     * 目标为普通文件时通过文件通道传输，否则（管道、套接字）使用流复制
+     *
+     * @param context  Context
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 读写错误
+     */
+    public static long copyOrThrow(Context context, File source, Uri target,
+                                   @Nullable StreamUtils.ProgressListener listener,
+                                   @Nullable CancellationSignal signal) throws IOException {
+        try (final FileInputStream input = new FileInputStream(source);
+             final ParcelFileDescriptor output =
+                     openFileDescriptor(context.getContentResolver(), target, "w")) {
+            return copy(input, source.isFile(),
+                    new FileOutputStream(output.getFileDescriptor()), output.getStatSize() >= 0,
+                    source.length(), listener, signal);
+        } finally {
+            invalidateMetadata(target);
+        }
+    }
+
+    /**
+     * 可续传复制
+     * 源为普通文件时定期保存检查点，中断后再次调用时校验已复制部分并从断点继续；
+     * 源不支持定位读取（如管道）时从头复制
+     *
+     * @param context    Context
+     * @param source     源文件
+     * @param target     目标文件
+     * @param checkpoint 检查点文件，须位于可写位置
+     * @param listener   进度监听
+     * @param signal     取消信号，取消时保存检查点并抛出{@link android.os.OperationCanceledException}
+     * @return 复制结果
+     * @throws IOException 读写错误
+     */
+    public static ResumableCopier.Result copyResumableOrThrow(
+            Context context, Uri source, Uri target, File checkpoint,
+            @Nullable StreamUtils.ProgressListener listener,
+            @Nullable CancellationSignal signal) throws IOException {
+        final ContentResolver resolver = context.getContentResolver();
+        try (final ParcelFileDescriptor input = openFileDescriptor(resolver, source, "r");
+             final ParcelFileDescriptor output = openFileDescriptor(resolver, target, "rw")) {
+            // 流无需关闭，由 ParcelFileDescriptor 关闭；FileOutputStream的通道不可读，另开读取通道
+            return copyResumable(context, source, input,
+                    new FileOutputStream(output.getFileDescriptor()).getChannel(),
+                    new FileInputStream(output.getFileDescriptor()).getChannel(),
+                    checkpoint, listener, signal);
+        } finally {
+            invalidateMetadata(target);
+        }
+    }
+
+    /**
+     * 可续传复制
+     *
+     * @param context    Context
+     * @param source     源文件
+     * @param target     目标文件
+     * @param checkpoint 检查点文件，为null时使用{@link ResumableCopier#getCheckpoint(File)}
+     * @param listener   进度监听
+     * @param signal     取消信号，取消时保存检查点并抛出{@link android.os.OperationCanceledException}
+     * @return 复制结果
+     * @throws IOException 读写错误
+     */
+    public static ResumableCopier.Result copyResumableOrThrow(
+            Context context, Uri source, File target, @Nullable File checkpoint,
+            @Nullable StreamUtils.ProgressListener listener,
+            @Nullable CancellationSignal signal) throws IOException {
+        try (final ParcelFileDescriptor input =
+                     openFileDescriptor(context.getContentResolver(), source, "r");
+             final RandomAccessFile output = new RandomAccessFile(target, "rw")) {
+            return copyResumable(context, source, input, output.getChannel(), output.getChannel(),
+                    checkpoint == null ? ResumableCopier.getCheckpoint(target) : checkpoint,
+                    listener, signal);
+        }
+    }
+
+    /**
+     * 可续传复制
+     *
+     * @param context    Context
+     * @param source     源文件
+     * @param target     目标文件
+     * @param checkpoint 检查点文件，须位于可写位置
+     * @param listener   进度监听
+     * @param signal     取消信号，取消时保存检查点并抛出{@link android.os.OperationCanceledException}
+     * @return 复制结果
+     * @throws IOException 读写错误
+     */
+    public static ResumableCopier.Result copyResumableOrThrow(
+            Context context, File source, Uri target, File checkpoint,
+            @Nullable StreamUtils.ProgressListener listener,
+            @Nullable CancellationSignal signal) throws IOException {
+        try (final FileInputStream input = new FileInputStream(source);
+             final ParcelFileDescriptor output =
+                     openFileDescriptor(context.getContentResolver(), target, "rw")) {
+            // 流无需关闭，由 ParcelFileDescriptor 关闭；FileOutputStream的通道不可读，另开读取通道
+            return ResumableCopier.copy(input.getChannel(),
+                    new FileOutputStream(output.getFileDescriptor()).getChannel(),
+                    new FileInputStream(output.getFileDescriptor()).getChannel(),
+                    source.getAbsolutePath(), input.getChannel().size(), source.lastModified(),
+                    checkpoint, listener, signal);
+        } finally {
+            invalidateMetadata(target);
+        }
+    }
+
+    private static ResumableCopier.Result copyResumable(
+            Context context, Uri source, ParcelFileDescriptor input, FileChannel output,
+            FileChannel outputReader, File checkpoint, @Nullable StreamUtils.ProgressListener listener,
+            @Nullable CancellationSignal signal) throws IOException {
+        // 流无需关闭，由 ParcelFileDescriptor 关闭
+        final FileInputStream in = new FileInputStream(input.getFileDescriptor());
+        final long length = input.getStatSize();
+        if (length < 0) {
+            output.truncate(0);
+            final long copied = StreamUtils.copy(in, Channels.newOutputStream(output),
+                    -1, listener, signal);
+            return new ResumableCopier.Result(copied, 0);
+        }
+        final UriMetadata metadata = getMetadata(context, source, false);
+        return ResumableCopier.copy(in.getChannel(), output, outputReader, source.toString(),
+                length, metadata == null ? 0 : metadata.getLastModified(),
+                checkpoint, listener, signal);
+    }
+
+    /**
+     * 流水线复制
+     * 读取与写入在两个线程中同时进行，适用于读写均较慢的内容提供者及外部存储
+     *
+     * @param context  Context
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 读写错误
+     */
+    public static long copyPipelinedOrThrow(Context context, Uri source, Uri target,
+                                            @Nullable StreamUtils.ProgressListener listener,
+                                            @Nullable CancellationSignal signal)
+            throws IOException {
+        final ContentResolver resolver = context.getContentResolver();
+        try (final ParcelFileDescriptor input = openFileDescriptor(resolver, source, "r");
+             final ParcelFileDescriptor output = openFileDescriptor(resolver, target, "w")) {
+            // 流无需关闭，由 ParcelFileDescriptor 关闭
+            return StreamUtils.copyPipelined(new FileInputStream(input.getFileDescriptor()),
+                    new FileOutputStream(output.getFileDescriptor()), input.getStatSize(),
+                    listener, signal);
+        } finally {
+            invalidateMetadata(target);
+        }
+    }
+
+    /**
+     * 流水线复制
+     *
+     * @param context  Context
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 读写错误
+     */
+    public static long copyPipelinedOrThrow(Context context, Uri source, File target,
+                                            @Nullable StreamUtils.ProgressListener listener,
+                                            @Nullable CancellationSignal signal)
+            throws IOException {
+        try (final ParcelFileDescriptor input =
+                     openFileDescriptor(context.getContentResolver(), source, "r");
+             final FileOutputStream output = new FileOutputStream(target)) {
+            return StreamUtils.copyPipelined(new FileInputStream(input.getFileDescriptor()),
+                    output, input.getStatSize(), listener, signal);
+        }
+    }
+
+    /**
+     * 流水线复制
+     *
+     * @param context  Context
+     * @param source   源文件
+     * @param target   目标文件
+     * @param listener 进度监听
+     * @param signal   取消信号，取消时抛出{@link android.os.OperationCanceledException}
+     * @return 复制的字节数
+     * @throws IOException 读写错误
+     */
+    public static long copyPipelinedOrThrow(Context context, File source, Uri target,
+                                            @Nullable StreamUtils.ProgressListener listener,
+                                            @Nullable CancellationSignal signal)
+            throws IOException {
+        try (final FileInputStream input = new FileInputStream(source);
+             final ParcelFileDescriptor output =
+                     openFileDescriptor(context.getContentResolver(), target, "w")) {
+            return StreamUtils.copyPipelined(input,
+                    new FileOutputStream(output.getFileDescriptor()), source.length(),
+                    listener, signal);
+        } finally {
+            invalidateMetadata(target);
+        }
+    }
+
     /**
      * 复制
      *
@@ -45,15 +366,8 @@ public class UriUtils {
      * @return 复制成功时返回true
      */
     public static boolean copy(Context context, Uri source, Uri target) {
-        try (final ParcelFileDescriptor.AutoCloseInputStream input =
-                     new ParcelFileDescriptor.AutoCloseInputStream(
-                             context.getContentResolver()
-                                     .openFileDescriptor(source, "r"));
-             final ParcelFileDescriptor.AutoCloseOutputStream output =
-                     new ParcelFileDescriptor.AutoCloseOutputStream(
-                             context.getContentResolver()
-                                     .openFileDescriptor(target, "w"))) {
-            StreamUtils.copy(input, output);
+        try {
+            copyOrThrow(context, source, target, null, null);
             return true;
         } catch (Throwable t) {
             return false;
@@ -69,12 +383,8 @@ public class UriUtils {
      * @return 复制成功时返回true
      */
     public static boolean copy(Context context, Uri source, File target) {
-        try (final ParcelFileDescriptor.AutoCloseInputStream input =
-                     new ParcelFileDescriptor.AutoCloseInputStream(
-                             context.getContentResolver()
-                                     .openFileDescriptor(source, "r"));
-             final FileOutputStream output = new FileOutputStream(target)) {
-            StreamUtils.copy(input, output);
+        try {
+            copyOrThrow(context, source, target, null, null);
             return true;
         } catch (Throwable t) {
             return false;
@@ -90,51 +400,17 @@ public class UriUtils {
      * @return 复制成功时返回true
      */
     public static boolean copy(Context context, File source, Uri target) {
-        try (final FileInputStream input = new FileInputStream(source);
-             final ParcelFileDescriptor.AutoCloseOutputStream output =
-                     new ParcelFileDescriptor.AutoCloseOutputStream(
-                             context.getContentResolver()
-                                     .openFileDescriptor(target, "w"))) {
-            StreamUtils.copy(input, output);
+        try {
+            copyOrThrow(context, source, target, null, null);
             return true;
         } catch (Throwable t) {
             return false;
         }
     }
 
-    @SuppressWarnings("SameParameterValue")
-    @Nullable
-    private static String queryForString(Context context, Uri self, String column,
-                                         @Nullable String defaultValue) {
-        try (final Cursor cursor = context.getContentResolver().query(
-                self, new String[]{column}, null, null, null)) {
-            if (cursor.moveToFirst() && !cursor.isNull(0)) {
-                return cursor.getString(0);
-            } else {
-                return defaultValue;
-            }
-        } catch (Throwable t) {
-            return defaultValue;
-        }
-    }
-
-    @SuppressWarnings("SameParameterValue")
-    private static long queryForLong(Context context, Uri self, String column,
-                                     long defaultValue) {
-        try (final Cursor cursor = context.getContentResolver().query(
-                self, new String[]{column}, null, null, null)) {
-            if (cursor.moveToFirst() && !cursor.isNull(0)) {
-                return cursor.getLong(0);
-            } else {
-                return defaultValue;
-            }
-        } catch (Throwable t) {
-            return defaultValue;
-        }
-    }
-
     /**
      * 获取名称
+     * 通过{@link #getMetadata(Context, Uri)}获取，结果会被缓存
      *
      * @param context Context
      * @param uri     链接
@@ -143,8 +419,8 @@ public class UriUtils {
     @RequiresApi(api = Build.VERSION_CODES.KITKAT)
     @Nullable
     public static String getName(Context context, Uri uri) {
-        return queryForString(context, uri, DocumentsContract.Document.COLUMN_DISPLAY_NAME,
-                null);
+        final UriMetadata metadata = getMetadata(context, uri);
+        return metadata == null ? null : metadata.getName();
     }
 
     /**
@@ -162,6 +438,7 @@ public class UriUtils {
 
     /**
      * 获取最后编辑时间
+     * 通过{@link #getMetadata(Context, Uri)}获取，结果会被缓存
      *
      * @param context Context
      * @param uri     链接
@@ -169,11 +446,13 @@ public class UriUtils {
      */
     @RequiresApi(api = Build.VERSION_CODES.KITKAT)
     public static long lastModified(Context context, Uri uri) {
-        return queryForLong(context, uri, DocumentsContract.Document.COLUMN_LAST_MODIFIED, 0);
+        final UriMetadata metadata = getMetadata(context, uri);
+        return metadata == null ? 0 : metadata.getLastModified();
     }
 
     /**
      * 获取文件长度
+     * 通过{@link #getMetadata(Context, Uri)}获取，结果会被缓存
      *
      * @param context Context
      * @param uri     链接
@@ -181,6 +460,202 @@ public class UriUtils {
      */
     @RequiresApi(api = Build.VERSION_CODES.KITKAT)
     public static long length(Context context, Uri uri) {
-        return queryForLong(context, uri, DocumentsContract.Document.COLUMN_SIZE, 0);
+        final UriMetadata metadata = getMetadata(context, uri);
+        return metadata == null ? 0 : metadata.getLength();
+    }
+
+    /**
+     * 获取元数据
+     * 一次查询同时获取名称、长度、最后编辑时间及MIME类型，结果会被缓存
+     *
+     * @param context Context
+     * @param uri     链接
+     * @return 元数据，查询失败时返回null
+     */
+    @Nullable
+    public static UriMetadata getMetadata(Context context, Uri uri) {
+        return getMetadata(context, uri, true);
+    }
+
+    /**
+     * 获取元数据
+     *
+     * @param context  Context
+     * @param uri      链接
+     * @param useCache 是否使用缓存，不使用缓存时仍会更新缓存
+     * @return 元数据，查询失败时返回null
+     */
+    @Nullable
+    public static UriMetadata getMetadata(Context context, Uri uri, boolean useCache) {
+        if (useCache) {
+            final UriMetadata cached = METADATA_CACHE.get(uri);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        final boolean media = MediaStore.AUTHORITY.equals(uri.getAuthority());
+        UriMetadata metadata = queryMetadata(context, uri,
+                media ? PROJECTION_MEDIA : PROJECTION_DOCUMENT, media);
+        if (metadata == null) {
+            // 提供者不支持全部列
+            metadata = queryMetadata(context, uri, PROJECTION_OPENABLE, false);
+        }
+        if (metadata == null) {
+            METADATA_CACHE.remove(uri);
+            return null;
+        }
+        METADATA_CACHE.put(uri, metadata);
+        return metadata;
+    }
+
+    @Nullable
+    private static UriMetadata queryMetadata(Context context, Uri uri, String[] projection,
+                                             boolean seconds) {
+        try (final Cursor cursor = context.getContentResolver().query(
+                uri, projection, null, null, null)) {
+            if (cursor == null || !cursor.moveToFirst()) {
+                return null;
+            }
+            return readMetadata(context, uri, cursor, projection, seconds);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    private static UriMetadata readMetadata(Context context, Uri uri, Cursor cursor,
+                                            String[] projection, boolean seconds) {
+        final int name = cursor.getColumnIndex(projection[0]);
+        final int size = cursor.getColumnIndex(projection[1]);
+        final int modified = projection.length > 2 ? cursor.getColumnIndex(projection[2]) : -1;
+        final int mime = projection.length > 3 ? cursor.getColumnIndex(projection[3]) : -1;
+        long lastModified = modified < 0 || cursor.isNull(modified) ? 0 : cursor.getLong(modified);
+        if (seconds) {
+            lastModified *= 1000;
+        }
+        String mimeType = mime < 0 || cursor.isNull(mime) ? null : cursor.getString(mime);
+        if (mimeType == null) {
+            mimeType = context.getContentResolver().getType(uri);
+        }
+        return new UriMetadata(uri,
+                name < 0 || cursor.isNull(name) ? null : cursor.getString(name),
+                size < 0 || cursor.isNull(size) ? 0 : cursor.getLong(size),
+                lastModified, mimeType);
+    }
+
+    /**
+     * 批量获取元数据
+     * MediaStore 链接按集合分组，每组仅查询一次（_id IN (...)），其他链接逐个查询，结果会被缓存
+     *
+     * @param context Context
+     * @param uris    链接
+     * @return 链接与元数据的映射，按输入顺序排列，查询失败的链接不包含在内
+     */
+    public static Map<Uri, UriMetadata> getMetadata(Context context, List<Uri> uris) {
+        final Map<Uri, UriMetadata> result = new LinkedHashMap<>(uris.size());
+        final Map<Uri, Map<String, Uri>> groups = new HashMap<>();
+        for (Uri uri : uris) {
+            result.put(uri, null);
+            final UriMetadata cached = METADATA_CACHE.get(uri);
+            if (cached != null) {
+                result.put(uri, cached);
+                continue;
+            }
+            final Uri collection = getMediaCollection(uri);
+            if (collection == null) {
+                continue;
+            }
+            Map<String, Uri> group = groups.get(collection);
+            if (group == null) {
+                group = new HashMap<>();
+                groups.put(collection, group);
+            }
+            group.put(uri.getLastPathSegment(), uri);
+        }
+        for (Map.Entry<Uri, Map<String, Uri>> group : groups.entrySet()) {
+            queryMediaMetadata(context, group.getKey(), group.getValue(), result);
+        }
+        final Iterator<Map.Entry<Uri, UriMetadata>> iterator = result.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Uri, UriMetadata> entry = iterator.next();
+            if (entry.getValue() != null) {
+                continue;
+            }
+            // 不支持批量查询的提供者
+            final UriMetadata metadata = getMetadata(context, entry.getKey(), false);
+            if (metadata == null) {
+                iterator.remove();
+            } else {
+                entry.setValue(metadata);
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private static Uri getMediaCollection(Uri uri) {
+        if (!MediaStore.AUTHORITY.equals(uri.getAuthority()) ||
+                uri.getQuery() != null || uri.getFragment() != null) {
+            return null;
+        }
+        final String id = uri.getLastPathSegment();
+        if (TextUtils.isEmpty(id) || !TextUtils.isDigitsOnly(id)) {
+            return null;
+        }
+        final String value = uri.toString();
+        if (!value.endsWith("/" + id)) {
+            return null;
+        }
+        return Uri.parse(value.substring(0, value.length() - id.length() - 1));
+    }
+
+    private static void queryMediaMetadata(Context context, Uri collection,
+                                           Map<String, Uri> group,
+                                           Map<Uri, UriMetadata> result) {
+        final List<String> ids = new ArrayList<>(group.keySet());
+        for (int start = 0; start < ids.size(); start += BATCH_SIZE) {
+            final List<String> batch = ids.subList(start, Math.min(ids.size(), start + BATCH_SIZE));
+            final StringBuilder selection = new StringBuilder(MediaStore.MediaColumns._ID)
+                    .append(" IN (");
+            for (int i = 0; i < batch.size(); i++) {
+                selection.append(i == 0 ? "?" : ",?");
+            }
+            selection.append(')');
+            try (final Cursor cursor = context.getContentResolver().query(collection,
+                    PROJECTION_MEDIA_BATCH, selection.toString(),
+                    batch.toArray(new String[0]), null)) {
+                if (cursor == null) {
+                    continue;
+                }
+                final int index = cursor.getColumnIndex(MediaStore.MediaColumns._ID);
+                while (cursor.moveToNext()) {
+                    final Uri uri = group.get(cursor.getString(index));
+                    if (uri == null) {
+                        continue;
+                    }
+                    final UriMetadata metadata =
+                            readMetadata(context, uri, cursor, PROJECTION_MEDIA_BATCH, true);
+                    METADATA_CACHE.put(uri, metadata);
+                    result.put(uri, metadata);
+                }
+            } catch (Throwable t) {
+                // 失败的链接将逐个查询
+            }
+        }
+    }
+
+    /**
+     * 使元数据缓存失效
+     *
+     * @param uri 链接
+     */
+    public static void invalidateMetadata(Uri uri) {
+        METADATA_CACHE.remove(uri);
+    }
+
+    /**
+     * 清空元数据缓存
+     */
+    public static void clearMetadataCache() {
+        METADATA_CACHE.evictAll();
     }
 }